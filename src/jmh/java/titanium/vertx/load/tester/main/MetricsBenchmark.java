@@ -0,0 +1,98 @@
+/*
+ * MetricsBenchmark.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.Vertx;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Cost of logging a transaction while other threads log too, and of the one
+ * second report that merges all recorders and rotates the tps buckets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private Vertx vertx;
+    private Metrics metrics;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+
+        vertx = Vertx.vertx();
+        metrics = new Metrics(vertx, true);
+
+        // a recorder per event loop, as under load
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    metrics.log(1_000L + j * 1_000L, 100, 100);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // reports print every second, only their cost is of interest
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+        vertx.close();
+    }
+
+    /**
+     * Every benchmark thread logs to its own recorder, like the event loops
+     * of the clients and server.
+     */
+    @Benchmark
+    @Threads(4)
+    public void log() {
+        metrics.log(2_000_000L, 100, 100);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void logSingleThread() {
+        metrics.log(2_000_000L, 100, 100);
+    }
+
+    /**
+     * Merge of all recorders, interval histogram and bucket rotation of the
+     * one second timer.
+     */
+    @Benchmark
+    @Threads(1)
+    public void report() {
+        metrics.report();
+    }
+
+}
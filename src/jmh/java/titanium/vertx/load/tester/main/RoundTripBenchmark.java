@@ -0,0 +1,153 @@
+/*
+ * RoundTripBenchmark.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import titanium.vertx.load.tester.config.ClientConfiguration;
+import titanium.vertx.load.tester.config.ServerConfiguration;
+
+/**
+ * Cost of a request sent by a client verticle, built, sent and completed the
+ * way it is under load, on either engine and with or without a feeder, and
+ * of the server answering it with its shared response template, over one
+ * local HTTP/2 connection. One stream measures the round trip latency of the
+ * tester itself, many streams its throughput.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+
+    private static final int PORT = 8095;
+    private static final int BATCH = 1_000;
+
+    @Param({"webclient", "core"})
+    private String engine;
+
+    @Param({"1", "100"})
+    private int streams;
+
+    @Param({"false", "true"})
+    private boolean feeder;
+
+    private Vertx serverVertx;
+    private Vertx clientVertx;
+    private Server server;
+    private Metrics metrics;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        // metrics report every second, only the requests are of interest
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        serverVertx = Vertx.vertx();
+        server = new Server(serverVertx, new ServerConfiguration(new JsonObject()
+                .put("port", PORT)
+                .put("verticles", 1)
+                .put("body", "{\"authResult\":\"AUTHENTICATION_SUCCESS\"}")),
+                new Metrics(serverVertx, false));
+        server.start();
+
+        // same configuration, scenario and feeder as a client run
+        JsonObject clientJson = new JsonObject()
+                .put("port", PORT)
+                .put("multiplexingLimit", streams)
+                .put("engine", engine)
+                .put("httpMethod", "POST")
+                .put("path", "/nausf-auth/v1/ue-authentications/")
+                .put("body", "{\"servingNetworkName\":\"5G:mnc001.mcc001.3gppnetwork.org\"}")
+                .put("headers", new JsonArray()
+                        .add(new JsonObject().put("name", "content-type").put("value", "application/json")));
+        if (feeder) {
+            clientJson.put("feeder", new JsonObject()
+                    .put("file", this.createCorpus().getPath())
+                    .put("order", "random"));
+        }
+        ClientConfiguration config = new ClientConfiguration(clientJson);
+
+        Feeder clientFeeder = feeder ? new Feeder(config.getFeeder()) : null;
+        Scenario scenario = new Scenario(config.getScenarios().get(0), null);
+        clientVertx = Vertx.vertx();
+        metrics = new Metrics(clientVertx, true);
+
+        // wait for the server to listen, then for the first responses
+        TestServers.awaitListening(PORT);
+        clientVertx.deployVerticle(() -> new Client(config, metrics, Collections.singletonList(scenario),
+                clientFeeder, 0, null, null, null), new DeploymentOptions());
+        this.await(BATCH);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        clientVertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        server.stop();
+        System.setOut(out);
+    }
+
+    /**
+     * Requests completed by the client verticle, which keeps every stream
+     * busy on its own event loop.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void roundTrip() {
+        this.await(BATCH);
+    }
+
+    private void await(int transactions) {
+        long target = metrics.getTotalTransactions() + transactions;
+        while (metrics.getTotalTransactions() < target) {
+            if (metrics.getTotalErrors() > 0) {
+                throw new IllegalStateException("Requests failed.");
+            }
+            LockSupport.parkNanos(10_000);
+        }
+    }
+
+    private File createCorpus() throws Exception {
+        StringBuilder corpus = new StringBuilder("path,x-user,body\n");
+        for (int i = 0; i < 1_000; i++) {
+            corpus.append("/nausf-auth/v1/ue-authentications/").append(i)
+                    .append(",imsi-00101").append(String.format("%010d", i))
+                    .append(",authentication-").append(i).append("\n");
+        }
+        File file = File.createTempFile("corpus", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), corpus.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}
@@ -11,14 +11,26 @@
 package titanium.vertx.load.tester.config;
 
 import io.vertx.core.MultiMap;
+import io.vertx.core.VertxOptions;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Contains client configuration.
  */
 public class ClientConfiguration {
+
+    /**
+     * Http client the requests are sent with.
+     */
+    public enum Engine {
+        WEBCLIENT, CORE
+    }
     
     private final int numberOfClients;
     private final int numberOfConnections;
@@ -30,6 +42,24 @@ public class ClientConfiguration {
     private final MultiMap headers;
     private final String body;
     private final int expectedStatusCode;
+    private final long requestsPerSecond;
+    private final int eventLoopPoolSize;
+    private final TransportConfiguration transport;
+    private final String bodyFile;
+    private final FeederConfiguration feeder;
+    private final List<ScenarioConfiguration> scenarios;
+    private final List<StageConfiguration> stages;
+    private final boolean stopOnError;
+    private final SearchConfiguration search;
+    private final String resultsFile;
+    private final int metricsPort;
+    private final HttpVersion protocol;
+    private final boolean keepAlive;
+    private final int pipeliningLimit;
+    private final String metricsHost;
+    private final TlsConfiguration tls;
+    private final boolean streamResponses;
+    private final Engine engine;
     
     public ClientConfiguration(JsonObject config) {
         
@@ -43,6 +73,28 @@ public class ClientConfiguration {
         this.headers = MultiMap.caseInsensitiveMultiMap();
         this.body = config.getString("body", null);
         this.expectedStatusCode = config.getInteger("expectedStatusCode", 200);
+        this.requestsPerSecond = config.getLong("requestsPerSecond", 0L);
+        this.eventLoopPoolSize = config.getInteger("eventLoopPoolSize", VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE);
+        this.transport = new TransportConfiguration(config.getJsonObject("transport", new JsonObject()));
+        this.bodyFile = config.getString("bodyFile", null);
+        this.feeder = config.containsKey("feeder") ? new FeederConfiguration(config.getJsonObject("feeder")) : null;
+        this.stopOnError = config.getBoolean("stopOnError", true);
+        this.search = config.containsKey("search") ? new SearchConfiguration(config.getJsonObject("search")) : null;
+        this.resultsFile = config.getString("resultsFile", null);
+        this.metricsPort = config.getInteger("metricsPort", 0);
+        this.metricsHost = config.getString("metricsHost", "0.0.0.0");
+        this.protocol = parseProtocol(config.getString("protocol", HttpVersion.HTTP_2.name()));
+        this.keepAlive = config.getBoolean("keepAlive", true);
+        this.pipeliningLimit = config.getInteger("pipeliningLimit", 1);
+        this.tls = config.containsKey("tls") ? new TlsConfiguration(config.getJsonObject("tls")) : null;
+        this.streamResponses = config.getBoolean("streamResponses", false);
+        this.engine = Engine.valueOf(config.getString("engine", "webclient").toUpperCase());
+        
+        if (pipeliningLimit < 1) {
+            throw new IllegalArgumentException("Pipelining limit must be at least one.");
+        } else if (pipeliningLimit > 1 && !keepAlive) {
+            throw new IllegalArgumentException("Pipelining requires keepAlive.");
+        }
         
         if (config.containsKey("headers")) {
             JsonArray headerList = config.getJsonArray("headers");
@@ -51,6 +103,31 @@ public class ClientConfiguration {
                 this.headers.add(header.getString("name"), header.getString("value"));
             }
         }
+        
+        // without scenarios the top level request is the only scenario
+        ScenarioConfiguration defaultScenario = this.createDefaultScenario();
+        if (config.containsKey("scenarios")) {
+            List<ScenarioConfiguration> scenarioList = new ArrayList<>();
+            JsonArray scenarioArray = config.getJsonArray("scenarios");
+            for (int i = 0; i < scenarioArray.size(); i++) {
+                scenarioList.add(new ScenarioConfiguration(scenarioArray.getJsonObject(i), defaultScenario));
+            }
+            this.scenarios = Collections.unmodifiableList(scenarioList);
+        } else {
+            this.scenarios = Collections.singletonList(defaultScenario);
+        }
+        
+        List<StageConfiguration> stageList = new ArrayList<>();
+        JsonArray stageArray = config.getJsonArray("stages", new JsonArray());
+        for (int i = 0; i < stageArray.size(); i++) {
+            StageConfiguration stage = new StageConfiguration(stageArray.getJsonObject(i), i);
+            if (i > 0 && stage.isOpenLoop() != stageList.get(0).isOpenLoop()) {
+                throw new IllegalArgumentException(
+                        "Stages must either all set requestsPerSecond or all set concurrency.");
+            }
+            stageList.add(stage);
+        }
+        this.stages = Collections.unmodifiableList(stageList);
     }
 
     public ClientConfiguration(int numberOfClients, int numberOfConnections, int multiplexingLimit, 
@@ -67,6 +144,44 @@ public class ClientConfiguration {
         this.headers = headers;
         this.body = body;
         this.expectedStatusCode = expectedStatusCode;
+        this.requestsPerSecond = 0;
+        this.eventLoopPoolSize = VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE;
+        this.transport = new TransportConfiguration(new JsonObject());
+        this.bodyFile = null;
+        this.feeder = null;
+        this.scenarios = Collections.singletonList(this.createDefaultScenario());
+        this.stages = Collections.emptyList();
+        this.stopOnError = true;
+        this.search = null;
+        this.resultsFile = null;
+        this.metricsPort = 0;
+        this.metricsHost = "0.0.0.0";
+        this.protocol = HttpVersion.HTTP_2;
+        this.keepAlive = true;
+        this.pipeliningLimit = 1;
+        this.tls = null;
+        this.streamResponses = false;
+        this.engine = Engine.WEBCLIENT;
+    }
+    
+    /**
+     * @param protocol name of the http version
+     * @return HTTP_2 or HTTP_1_1
+     */
+    static HttpVersion parseProtocol(String protocol) {
+        if (HttpVersion.HTTP_2.name().equals(protocol)) {
+            return HttpVersion.HTTP_2;
+        } else if (HttpVersion.HTTP_1_1.name().equals(protocol)) {
+            return HttpVersion.HTTP_1_1;
+        } else {
+            throw new IllegalArgumentException(String.format(
+                    "Protocol [%s] is not supported, must be [HTTP_2] or [HTTP_1_1].", protocol));
+        }
+    }
+    
+    private ScenarioConfiguration createDefaultScenario() {
+        return new ScenarioConfiguration(httpMethod.name() + " " + path, 1, 
+                httpMethod, path, headers, body, bodyFile, expectedStatusCode);
     }
 
     public int getNumberOfClients() {
@@ -108,5 +223,183 @@ public class ClientConfiguration {
     public int getExpectedStatusCode() {
         return expectedStatusCode;
     }
+
+    /**
+     * Target rate for all clients combined. Zero means closed loop, where a 
+     * request is only sent once a stream becomes available.
+     * 
+     * @return requests per second, or zero for closed loop
+     */
+    public long getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    /**
+     * Number of event loops the client verticles are spread over.
+     * 
+     * @return event loop pool size of the client vertx instance
+     */
+    public int getEventLoopPoolSize() {
+        return eventLoopPoolSize;
+    }
+
+    public TransportConfiguration getTransport() {
+        return transport;
+    }
+
+    /**
+     * Path of a file to send as request body instead of the body string. The 
+     * file is memory mapped once and shared by all requests.
+     * 
+     * @return path of the body file, or null to send the body string
+     */
+    public String getBodyFile() {
+        return bodyFile;
+    }
+
+    /**
+     * Corpus of paths, headers and bodies to send instead of sending the same 
+     * request over and over. Values a record does not have are taken from 
+     * this configuration.
+     * 
+     * @return feeder configuration, or null to always send the same request
+     */
+    public FeederConfiguration getFeeder() {
+        return feeder;
+    }
+
+    /**
+     * Weighted mix of requests to send. Requests are picked at random in 
+     * proportion to the weights and every scenario checks its own status 
+     * code and reports its own metrics.
+     * 
+     * @return scenarios, a single scenario with the top level request if 
+     * none are configured
+     */
+    public List<ScenarioConfiguration> getScenarios() {
+        return scenarios;
+    }
+
+    /**
+     * Load profile to run, one stage after the other. Once the last stage 
+     * ends the clients stop and a summary of every stage is printed. Stages 
+     * replace requestsPerSecond.
+     * 
+     * @return stages, empty to run at a constant load until stopped
+     */
+    public List<StageConfiguration> getStages() {
+        return stages;
+    }
+
+    /**
+     * Whether a failed request or an unexpected status code stops all 
+     * clients. Otherwise errors are counted and reported. Ignored by a 
+     * search, which always counts errors.
+     * 
+     * @return true to stop on the first error
+     */
+    public boolean isStopOnError() {
+        return stopOnError;
+    }
+
+    /**
+     * Search for the highest sustainable rate. Replaces stages and 
+     * requestsPerSecond.
+     * 
+     * @return search configuration, or null to not search
+     */
+    public SearchConfiguration getSearch() {
+        return search;
+    }
+    
+    /**
+     * Path of a file every one second report is appended to, see 
+     * TimeSeriesWriter for the format.
+     * 
+     * @return path of the results file, or null to only print reports
+     */
+    public String getResultsFile() {
+        return resultsFile;
+    }
+    
+    /**
+     * Port of an OpenMetrics endpoint at /metrics, served by its own vertx 
+     * instance.
+     * 
+     * @return port of the endpoint, zero if disabled
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public String getMetricsHost() {
+        return metricsHost;
+    }
+    
+    /**
+     * HTTP version of the requests. HTTP/2 multiplexes up to the 
+     * multiplexing limit on every connection, HTTP/1.1 sends one request at 
+     * a time on every connection, or up to the pipelining limit.
+     * 
+     * @return HTTP_2 or HTTP_1_1
+     */
+    public HttpVersion getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * @return whether HTTP/1.1 connections are reused for the next request
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * @return HTTP/1.1 requests sent on a connection before their responses 
+     * arrived, one if pipelining is disabled
+     */
+    public int getPipeliningLimit() {
+        return pipeliningLimit;
+    }
+
+    /**
+     * Requests one connection carries at a time.
+     * 
+     * @return multiplexing limit for HTTP/2, pipelining limit for HTTP/1.1
+     */
+    public int getStreamsPerConnection() {
+        return protocol == HttpVersion.HTTP_2 ? multiplexingLimit : pipeliningLimit;
+    }
+
+    /**
+     * TLS with ALPN, HTTP/2 is negotiated instead of sent as clear text.
+     * 
+     * @return TLS configuration, or null to speak clear text
+     */
+    public TlsConfiguration getTls() {
+        return tls;
+    }
+
+    /**
+     * Whether response bodies are counted as they stream in instead of being 
+     * buffered. Streamed responses are checked on their status as soon as 
+     * the headers arrive and also report the time to first byte.
+     * 
+     * @return true to stream response bodies, false to buffer them
+     */
+    public boolean isStreamResponses() {
+        return streamResponses;
+    }
+
+    /**
+     * Http client the requests are sent with. The core engine sends with the 
+     * core http client of vertx without the layers of the web client, and 
+     * always streams response bodies.
+     * 
+     * @return WEBCLIENT or CORE
+     */
+    public Engine getEngine() {
+        return engine;
+    }
     
 }
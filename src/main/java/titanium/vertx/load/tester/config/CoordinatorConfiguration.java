@@ -0,0 +1,106 @@
+/*
+ * CoordinatorConfiguration.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Contains the configuration of a coordinator that splits the client load 
+ * over several agent processes.
+ */
+public class CoordinatorConfiguration {
+
+    private final String host;
+    private final int port;
+    private final int agents;
+    private final long startDelayMillis;
+    private final JsonObject client;
+    private final ClientConfiguration clientConfiguration;
+
+    /**
+     * @param config of the coordinator
+     * @param client configuration the agents share
+     */
+    public CoordinatorConfiguration(JsonObject config, JsonObject client) {
+        this(config.getString("host", "localhost"),
+                config.getInteger("port", 7070),
+                config.getInteger("agents", 1),
+                config.getLong("startDelayMillis", 1_000L),
+                client);
+    }
+
+    public CoordinatorConfiguration(String host, int port, int agents, long startDelayMillis, 
+            JsonObject client) {
+        
+        this.host = host;
+        this.port = port;
+        this.agents = agents;
+        this.startDelayMillis = startDelayMillis;
+        this.client = client;
+        this.clientConfiguration = new ClientConfiguration(client);
+
+        if (agents <= 0) {
+            throw new IllegalArgumentException("Coordinator needs at least one agent.");
+        } else if (clientConfiguration.getSearch() != null) {
+            throw new IllegalArgumentException("Search is not supported by a coordinator.");
+        } else if (clientConfiguration.getRequestsPerSecond() > 0
+                && clientConfiguration.getRequestsPerSecond() < agents) {
+            // an agent with a rate of zero would run a closed loop instead
+            throw new IllegalArgumentException(String.format(
+                    "Coordinator needs at least one request per second for each of its [%s] agents.", agents));
+        } else if (clientConfiguration.getNumberOfClients() < agents) {
+            throw new IllegalArgumentException(String.format(
+                    "Coordinator needs at least one client for each of its [%s] agents.", agents));
+        }
+    }
+
+    /**
+     * @return host the coordinator listens on for agents
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return port the coordinator listens on for agents
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return number of agents the load is split over, the test starts once 
+     * all of them connected
+     */
+    public int getAgents() {
+        return agents;
+    }
+
+    /**
+     * @return time between sending the start to the agents and the agents 
+     * starting, so all of them start at the same time
+     */
+    public long getStartDelayMillis() {
+        return startDelayMillis;
+    }
+
+    /**
+     * @return client configuration as json, sent to the agents
+     */
+    public JsonObject getClient() {
+        return client;
+    }
+
+    public ClientConfiguration getClientConfiguration() {
+        return clientConfiguration;
+    }
+
+}
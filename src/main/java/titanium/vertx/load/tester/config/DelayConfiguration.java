@@ -0,0 +1,175 @@
+/*
+ * DelayConfiguration.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Contains the configuration of the simulated service latency of the server.
+ * Responses are held on a timer for a delay drawn from the distribution, so
+ * a slow backend is simulated without using any CPU. Delays are in
+ * milliseconds with fractions for sub millisecond delays.
+ */
+public class DelayConfiguration {
+
+    /**
+     * Distribution the delay of every response is drawn from.
+     */
+    public enum Distribution {
+        FIXED, UNIFORM, NORMAL, LOGNORMAL, EMPIRICAL
+    }
+
+    private final Distribution distribution;
+    private final double millis;
+    private final double minMillis;
+    private final double maxMillis;
+    private final double meanMillis;
+    private final double stdDevMillis;
+    private final double[] percentiles;
+    private final double[] percentileMillis;
+
+    public DelayConfiguration(JsonObject config) {
+
+        this.distribution = Distribution.valueOf(config.getString("distribution", "fixed").toUpperCase());
+        this.millis = config.getDouble("millis", 0.0);
+        this.minMillis = config.getDouble("minMillis", 0.0);
+        this.maxMillis = config.getDouble("maxMillis", 0.0);
+        this.meanMillis = config.getDouble("meanMillis", 0.0);
+        this.stdDevMillis = config.getDouble("stdDevMillis", 0.0);
+
+        JsonArray points = config.getJsonArray("percentiles", new JsonArray());
+        this.percentiles = new double[points.size()];
+        this.percentileMillis = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            JsonObject point = points.getJsonObject(i);
+            this.percentiles[i] = point.getDouble("percentile");
+            this.percentileMillis[i] = point.getDouble("millis");
+        }
+
+        this.validate();
+    }
+
+    public DelayConfiguration(Distribution distribution, double millis,
+            double minMillis, double maxMillis, double meanMillis, double stdDevMillis,
+            double[] percentiles, double[] percentileMillis) {
+
+        this.distribution = distribution;
+        this.millis = millis;
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+        this.meanMillis = meanMillis;
+        this.stdDevMillis = stdDevMillis;
+        this.percentiles = percentiles;
+        this.percentileMillis = percentileMillis;
+
+        this.validate();
+    }
+
+    private void validate() {
+        switch (distribution) {
+            case FIXED:
+                if (millis < 0) {
+                    throw new IllegalArgumentException("Delay [fixed] must not be negative.");
+                }
+                break;
+            case UNIFORM:
+                if (minMillis < 0 || maxMillis < minMillis) {
+                    throw new IllegalArgumentException(
+                            "Delay [uniform] must have 0 <= minMillis <= maxMillis.");
+                }
+                break;
+            case NORMAL:
+            case LOGNORMAL:
+                if (meanMillis <= 0 || stdDevMillis < 0) {
+                    throw new IllegalArgumentException(String.format(
+                            "Delay [%s] must have a positive meanMillis and a non negative stdDevMillis.",
+                            distribution.name().toLowerCase()));
+                }
+                break;
+            case EMPIRICAL:
+                if (percentiles.length == 0) {
+                    throw new IllegalArgumentException("Delay [empirical] must have percentiles.");
+                }
+                for (int i = 0; i < percentiles.length; i++) {
+                    if (percentiles[i] < 0 || percentiles[i] > 100 || percentileMillis[i] < 0) {
+                        throw new IllegalArgumentException(String.format(
+                                "Percentile [%s] must be between 0 and 100 with a non negative delay.",
+                                percentiles[i]));
+                    } else if (i > 0 && (percentiles[i] <= percentiles[i - 1]
+                            || percentileMillis[i] < percentileMillis[i - 1])) {
+                        throw new IllegalArgumentException(String.format(
+                                "Percentile [%s] must be above the previous percentile with at least its delay.",
+                                percentiles[i]));
+                    }
+                }
+                break;
+        }
+    }
+
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    /**
+     * @return delay of the fixed distribution
+     */
+    public double getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return lowest delay of the uniform distribution
+     */
+    public double getMinMillis() {
+        return minMillis;
+    }
+
+    /**
+     * @return highest delay of the uniform distribution
+     */
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * @return mean delay of the normal and log-normal distributions
+     */
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    /**
+     * @return standard deviation of the delay of the normal and log-normal
+     * distributions
+     */
+    public double getStdDevMillis() {
+        return stdDevMillis;
+    }
+
+    /**
+     * Percentiles of the empirical distribution, for example measured on a
+     * real backend. Delays between two percentiles are interpolated.
+     *
+     * @return ascending percentiles between 0 and 100
+     */
+    public double[] getPercentiles() {
+        return percentiles;
+    }
+
+    /**
+     * @return delay at each of the percentiles
+     */
+    public double[] getPercentileMillis() {
+        return percentileMillis;
+    }
+
+}
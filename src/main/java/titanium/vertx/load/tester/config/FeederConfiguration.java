@@ -0,0 +1,95 @@
+/*
+ * FeederConfiguration.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Contains the configuration of a request feeder, a corpus file with one
+ * path, headers and body per line.
+ */
+public class FeederConfiguration {
+
+    /**
+     * Format of the corpus file.
+     */
+    public enum Format {
+        /**
+         * One json object per line with optional path, headers and body.
+         */
+        JSONL,
+        /**
+         * Comma separated values with a header row. Columns named path and
+         * body are the path and body, any other column is an HTTP header.
+         */
+        CSV
+    }
+
+    /**
+     * Order the records of the corpus are sent in.
+     */
+    public enum Order {
+        /**
+         * Records are sent in file order, clients take turns.
+         */
+        SEQUENTIAL,
+        /**
+         * Every client picks records at random.
+         */
+        RANDOM,
+        /**
+         * Every client owns a disjoint part of the corpus, so a record is
+         * always sent by the same client over its own connections.
+         */
+        PARTITIONED
+    }
+
+    private final String file;
+    private final Format format;
+    private final Order order;
+
+    public FeederConfiguration(JsonObject config) {
+
+        this.file = config.getString("file");
+        this.order = Order.valueOf(config.getString("order", "sequential").toUpperCase());
+
+        if (config.containsKey("format")) {
+            this.format = Format.valueOf(config.getString("format").toUpperCase());
+        } else if (file != null && file.toLowerCase().endsWith(".csv")) {
+            this.format = Format.CSV;
+        } else {
+            this.format = Format.JSONL;
+        }
+
+        if (file == null) {
+            throw new IllegalArgumentException("Feeder configuration does not contain a file.");
+        }
+    }
+
+    public FeederConfiguration(String file, Format format, Order order) {
+        this.file = file;
+        this.format = format;
+        this.order = order;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * ScenarioConfiguration.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Contains the configuration of one request in a weighted mix of requests.
+ * Values a scenario does not set are taken from the client configuration,
+ * headers are added to the client headers.
+ */
+public class ScenarioConfiguration {
+
+    private final String name;
+    private final int weight;
+    private final HttpMethod httpMethod;
+    private final String path;
+    private final MultiMap headers;
+    private final String body;
+    private final String bodyFile;
+    private final int expectedStatusCode;
+
+    public ScenarioConfiguration(JsonObject config, ScenarioConfiguration defaults) {
+
+        this.weight = config.getInteger("weight", 1);
+        this.httpMethod = config.containsKey("httpMethod")
+                ? HttpMethod.valueOf(config.getString("httpMethod")) : defaults.getHttpMethod();
+        this.path = config.getString("path", defaults.getPath());
+        this.name = config.getString("name", httpMethod.name() + " " + path);
+        this.headers = MultiMap.caseInsensitiveMultiMap().addAll(defaults.getHeaders());
+        this.expectedStatusCode = config.getInteger("expectedStatusCode", defaults.getExpectedStatusCode());
+
+        // a scenario body replaces both the body and the body file of the client
+        if (config.containsKey("body") || config.containsKey("bodyFile")) {
+            this.body = config.getString("body", null);
+            this.bodyFile = config.getString("bodyFile", null);
+        } else {
+            this.body = defaults.getBody();
+            this.bodyFile = defaults.getBodyFile();
+        }
+
+        if (config.containsKey("headers")) {
+            JsonArray headerList = config.getJsonArray("headers");
+            for (int i = 0; i < headerList.size(); i++) {
+                JsonObject header = headerList.getJsonObject(i);
+                this.headers.set(header.getString("name"), header.getString("value"));
+            }
+        }
+
+        if (weight < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Scenario [%s] has a negative weight.", name));
+        }
+    }
+
+    public ScenarioConfiguration(String name, int weight, HttpMethod httpMethod, String path,
+            MultiMap headers, String body, String bodyFile, int expectedStatusCode) {
+        this.name = name;
+        this.weight = weight;
+        this.httpMethod = httpMethod;
+        this.path = path;
+        this.headers = headers;
+        this.body = body;
+        this.bodyFile = bodyFile;
+        this.expectedStatusCode = expectedStatusCode;
+    }
+
+    /**
+     * Name the metrics of the scenario are reported under.
+     *
+     * @return name, defaults to the method and path of the scenario
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Share of the requests relative to the weights of the other scenarios.
+     *
+     * @return weight, zero disables the scenario
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    public HttpMethod getHttpMethod() {
+        return httpMethod;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public MultiMap getHeaders() {
+        return headers;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getBodyFile() {
+        return bodyFile;
+    }
+
+    public int getExpectedStatusCode() {
+        return expectedStatusCode;
+    }
+
+}
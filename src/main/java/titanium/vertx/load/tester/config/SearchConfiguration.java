@@ -0,0 +1,123 @@
+/*
+ * SearchConfiguration.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Contains the configuration of a search for the highest request rate that 
+ * meets a latency and error rate objective.
+ */
+public class SearchConfiguration {
+
+    private final double maxP99Millis;
+    private final double maxErrorRate;
+    private final long startRequestsPerSecond;
+    private final long maxRequestsPerSecond;
+    private final long warmupSeconds;
+    private final long windowSeconds;
+    private final double precision;
+    private final int maxTrials;
+
+    public SearchConfiguration(JsonObject config) {
+        this(config.getDouble("maxP99Millis", 100.0),
+                config.getDouble("maxErrorRate", 0.001),
+                config.getLong("startRequestsPerSecond", 1_000L),
+                config.getLong("maxRequestsPerSecond", 0L),
+                config.getLong("warmupSeconds", 5L),
+                config.getLong("windowSeconds", 30L),
+                config.getDouble("precision", 0.05),
+                config.getInteger("maxTrials", 20));
+    }
+
+    public SearchConfiguration(double maxP99Millis, double maxErrorRate, 
+            long startRequestsPerSecond, long maxRequestsPerSecond, 
+            long warmupSeconds, long windowSeconds, double precision, int maxTrials) {
+        
+        this.maxP99Millis = maxP99Millis;
+        this.maxErrorRate = maxErrorRate;
+        this.startRequestsPerSecond = startRequestsPerSecond;
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        this.warmupSeconds = warmupSeconds;
+        this.windowSeconds = windowSeconds;
+        this.precision = precision;
+        this.maxTrials = maxTrials;
+
+        if (startRequestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Search must start at a positive rate.");
+        } else if (maxRequestsPerSecond > 0 && maxRequestsPerSecond < startRequestsPerSecond) {
+            throw new IllegalArgumentException("Search maximum rate is below its start rate.");
+        } else if (warmupSeconds < 0 || windowSeconds <= 0) {
+            throw new IllegalArgumentException("Search window must be positive.");
+        } else if (precision <= 0 || precision >= 1) {
+            throw new IllegalArgumentException("Search precision must be between zero and one.");
+        } else if (maxTrials <= 0) {
+            throw new IllegalArgumentException("Search must run at least one trial.");
+        }
+    }
+
+    /**
+     * @return highest p99 latency a rate may have to be sustainable
+     */
+    public double getMaxP99Millis() {
+        return maxP99Millis;
+    }
+
+    /**
+     * @return highest share of failed requests a rate may have to be 
+     * sustainable
+     */
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    /**
+     * @return rate of the first trial
+     */
+    public long getStartRequestsPerSecond() {
+        return startRequestsPerSecond;
+    }
+
+    /**
+     * @return highest rate to try, or zero to double the rate until a trial 
+     * fails
+     */
+    public long getMaxRequestsPerSecond() {
+        return maxRequestsPerSecond;
+    }
+
+    /**
+     * @return length of the warm up of each trial, not evaluated
+     */
+    public long getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    /**
+     * @return length of the window each trial is evaluated over
+     */
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    /**
+     * @return search stops once the failing and sustainable rates are 
+     * closer than this share of the failing rate
+     */
+    public double getPrecision() {
+        return precision;
+    }
+
+    public int getMaxTrials() {
+        return maxTrials;
+    }
+
+}
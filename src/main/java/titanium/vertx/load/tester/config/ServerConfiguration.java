@@ -11,6 +11,8 @@
 package titanium.vertx.load.tester.config;
 
 import io.vertx.core.MultiMap;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -19,6 +21,13 @@ import io.vertx.core.json.JsonObject;
  */
 public class ServerConfiguration {
     
+    /**
+     * Threads that run the service logic when requests are executed blocking.
+     */
+    public enum BlockingExecutor {
+        PLATFORM, VIRTUAL
+    }
+    
     private final String host;
     private final int port;
     private final int statusCode;
@@ -27,6 +36,21 @@ public class ServerConfiguration {
     private final int multiplexingLimit;
     private final long blockingMillis;
     private final boolean executeBlocking;
+    private final int verticles;
+    private final int eventLoopPoolSize;
+    private final int workerPoolSize;
+    private final TransportConfiguration transport;
+    private final String bodyFile;
+    private final String resultsFile;
+    private final int metricsPort;
+    private final HttpVersion protocol;
+    private final boolean keepAlive;
+    private final String metricsHost;
+    private final TlsConfiguration tls;
+    private final BlockingExecutor blockingExecutor;
+    private final int blockingPoolSize;
+    private final DelayConfiguration delay;
+    private final WorkConfiguration work;
     
     public ServerConfiguration(JsonObject config) {
         
@@ -38,6 +62,22 @@ public class ServerConfiguration {
         this.multiplexingLimit = config.getInteger("multiplexingLimit", 1_000);
         this.blockingMillis = config.getLong("blockingMillis", 0L);
         this.executeBlocking = config.getBoolean("executeBlocking", false);
+        this.verticles = config.getInteger("verticles", VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE);
+        this.eventLoopPoolSize = config.getInteger("eventLoopPoolSize", VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE);
+        this.workerPoolSize = config.getInteger("workerPoolSize", VertxOptions.DEFAULT_WORKER_POOL_SIZE);
+        this.transport = new TransportConfiguration(config.getJsonObject("transport", new JsonObject()));
+        this.bodyFile = config.getString("bodyFile", null);
+        this.resultsFile = config.getString("resultsFile", null);
+        this.metricsPort = config.getInteger("metricsPort", 0);
+        this.metricsHost = config.getString("metricsHost", "0.0.0.0");
+        this.protocol = ClientConfiguration.parseProtocol(config.getString("protocol", HttpVersion.HTTP_2.name()));
+        this.keepAlive = config.getBoolean("keepAlive", true);
+        this.tls = config.containsKey("tls") ? new TlsConfiguration(config.getJsonObject("tls")) : null;
+        this.blockingExecutor = BlockingExecutor.valueOf(
+                config.getString("blockingExecutor", "platform").toUpperCase());
+        this.blockingPoolSize = config.getInteger("blockingPoolSize", 20);
+        this.delay = config.containsKey("delay") ? new DelayConfiguration(config.getJsonObject("delay")) : null;
+        this.work = config.containsKey("work") ? new WorkConfiguration(config.getJsonObject("work")) : null;
         
         if (config.containsKey("headers")) {
             JsonArray headerList = config.getJsonArray("headers");
@@ -60,6 +100,21 @@ public class ServerConfiguration {
         this.multiplexingLimit = multiplexingLimit;
         this.blockingMillis = blockingMillis;
         this.executeBlocking = executeBlocking;
+        this.verticles = verticles;
+        this.eventLoopPoolSize = VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE;
+        this.workerPoolSize = VertxOptions.DEFAULT_WORKER_POOL_SIZE;
+        this.transport = new TransportConfiguration(new JsonObject());
+        this.bodyFile = null;
+        this.resultsFile = null;
+        this.metricsPort = 0;
+        this.metricsHost = "0.0.0.0";
+        this.protocol = HttpVersion.HTTP_2;
+        this.keepAlive = true;
+        this.tls = null;
+        this.blockingExecutor = BlockingExecutor.PLATFORM;
+        this.blockingPoolSize = 20;
+        this.delay = null;
+        this.work = null;
     }
 
     public String getHost() {
@@ -86,6 +141,14 @@ public class ServerConfiguration {
         return multiplexingLimit;
     }
 
+    /**
+     * Milliseconds of service logic, run as CPU work that is calibrated like 
+     * work in micros. It is an amount of work, not a wall clock duration, it 
+     * takes that long on an idle core and longer once requests compete for 
+     * the cores.
+     * 
+     * @return milliseconds of work, zero to do none
+     */
     public long getBlockingMillis() {
         return blockingMillis;
     }
@@ -93,5 +156,126 @@ public class ServerConfiguration {
     public boolean isExecuteBlocking() {
         return executeBlocking;
     }
+
+    /**
+     * Number of server verticles to deploy. Each verticle listens on the same 
+     * host and port, vertx assigns new connections to them round robin.
+     * 
+     * @return number of server verticles
+     */
+    public int getVerticles() {
+        return verticles;
+    }
+
+    public int getEventLoopPoolSize() {
+        return eventLoopPoolSize;
+    }
+
+    public int getWorkerPoolSize() {
+        return workerPoolSize;
+    }
+
+    public TransportConfiguration getTransport() {
+        return transport;
+    }
+
+    /**
+     * Path of a file to send as response body instead of the body string.
+     * 
+     * @return path of the body file, or null to send the body string
+     */
+    public String getBodyFile() {
+        return bodyFile;
+    }
+    
+    /**
+     * Path of a file every one second report is appended to, see 
+     * TimeSeriesWriter for the format.
+     * 
+     * @return path of the results file, or null to only print reports
+     */
+    public String getResultsFile() {
+        return resultsFile;
+    }
+    
+    /**
+     * Port of an OpenMetrics endpoint at /metrics, served by its own vertx 
+     * instance.
+     * 
+     * @return port of the endpoint, zero if disabled
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public String getMetricsHost() {
+        return metricsHost;
+    }
+    
+    /**
+     * HTTP versions the server accepts. HTTP/2 also accepts HTTP/1.1, so 
+     * one server can be measured with either client protocol.
+     * 
+     * @return HTTP_2 to accept both, HTTP_1_1 to accept HTTP/1.1 only
+     */
+    public HttpVersion getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * @return whether HTTP/1.1 connections stay open after a response
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * TLS with ALPN, HTTP/2 is negotiated instead of sent as clear text.
+     * 
+     * @return TLS configuration, or null to speak clear text
+     */
+    public TlsConfiguration getTls() {
+        return tls;
+    }
+
+    /**
+     * Threads that run the service logic when execute blocking is on. 
+     * Platform threads come from a worker pool of fixed size, virtual threads 
+     * are started per request and need Java 21.
+     * 
+     * @return PLATFORM or VIRTUAL
+     */
+    public BlockingExecutor getBlockingExecutor() {
+        return blockingExecutor;
+    }
+
+    /**
+     * @return number of platform threads that run the service logic, which 
+     * caps the number of requests processed at once
+     */
+    public int getBlockingPoolSize() {
+        return blockingPoolSize;
+    }
+
+    /**
+     * Simulated service latency. Responses are held on a timer of the event 
+     * loop after the service logic, so slow responses use no CPU while they 
+     * wait.
+     * 
+     * @return delay configuration, or null to respond right away
+     */
+    public DelayConfiguration getDelay() {
+        return delay;
+    }
+
+    /**
+     * CPU work of the service logic, a calibrated hashing kernel that runs 
+     * on the event loop, or on workers when execute blocking is on.
+     * 
+     * @return work configuration, or null to do no work
+     */
+    public WorkConfiguration getWork() {
+        return work;
+    }
     
 }
@@ -0,0 +1,109 @@
+/*
+ * StageConfiguration.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Contains the configuration of one stage of a load profile. A stage ramps 
+ * linearly from the target of the previous stage to its own target, then 
+ * holds its target for the rest of its duration. The target is either a 
+ * request rate (open loop) or a number of concurrent requests (closed loop).
+ */
+public class StageConfiguration {
+
+    private final String name;
+    private final long durationSeconds;
+    private final long rampSeconds;
+    private final long requestsPerSecond;
+    private final int concurrency;
+
+    /**
+     * @param config of the stage
+     * @param index of the stage, used to name unnamed stages
+     */
+    public StageConfiguration(JsonObject config, int index) {
+
+        this.name = config.getString("name", "stage-" + (index + 1));
+        this.durationSeconds = config.getLong("durationSeconds", 0L);
+        this.rampSeconds = config.getLong("rampSeconds", 0L);
+        this.requestsPerSecond = config.getLong("requestsPerSecond", -1L);
+        this.concurrency = config.getInteger("concurrency", -1);
+
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Stage [%s] must have a positive duration.", name));
+        } else if (rampSeconds < 0 || rampSeconds > durationSeconds) {
+            throw new IllegalArgumentException(String.format(
+                    "Stage [%s] ramp must be between zero and its duration.", name));
+        } else if ((requestsPerSecond < 0) == (concurrency < 0)) {
+            throw new IllegalArgumentException(String.format(
+                    "Stage [%s] must set either requestsPerSecond or concurrency.", name));
+        }
+    }
+
+    public StageConfiguration(String name, long durationSeconds, long rampSeconds, 
+            long requestsPerSecond, int concurrency) {
+        this.name = name;
+        this.durationSeconds = durationSeconds;
+        this.rampSeconds = rampSeconds;
+        this.requestsPerSecond = requestsPerSecond;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Name the metrics of the stage are tagged with.
+     * 
+     * @return name, defaults to stage-1, stage-2, ...
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return length of the stage including its ramp
+     */
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * @return length of the linear ramp at the start of the stage, zero 
+     * steps to the target at once
+     */
+    public long getRampSeconds() {
+        return rampSeconds;
+    }
+
+    /**
+     * @return target rate for all clients combined, or -1 if the stage 
+     * targets a concurrency
+     */
+    public long getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    /**
+     * @return target number of concurrent requests for all clients combined, 
+     * or -1 if the stage targets a rate
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @return true if the stage targets a request rate
+     */
+    public boolean isOpenLoop() {
+        return requestsPerSecond >= 0;
+    }
+
+}
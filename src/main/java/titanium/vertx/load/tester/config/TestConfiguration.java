@@ -22,8 +22,8 @@ import java.io.FileNotFoundException;
 import java.util.Scanner;
 
 /**
- * Loads the configuration from file and creates a client or server
- * configuration instance.
+ * Loads the configuration from file and creates a client, server or 
+ * coordinator configuration instance.
  */
 public class TestConfiguration {
 
@@ -49,6 +49,18 @@ public class TestConfiguration {
         }
     }
     
+    public static CoordinatorConfiguration getCoordinatorConfiguration(String pathName) {
+
+        JsonObject config = getConfiguration(pathName);
+
+        if (config.containsKey("client")) {
+            return new CoordinatorConfiguration(config.getJsonObject("coordinator", new JsonObject()), 
+                    config.getJsonObject("client"));
+        } else {
+            throw new IllegalArgumentException("Configuration does not contain client json object.");
+        }
+    }
+    
     private static JsonObject getConfiguration(String pathName) {
         
         File file = new File(pathName);
@@ -104,20 +116,57 @@ public class TestConfiguration {
             + "            \"type\": \"object\","
             + "            \"properties\": {"
             + "                \"numberOfClients\": {"
-            + "                    \"description\": \"Number of clients. How many clients/threads do you want to start sending requests?\","
+            + "                    \"description\": \"Number of clients. How many client verticles do you want to deploy to send requests? Each client has its own connection pool. A coordinator splits the clients over its agents.\","
             + "                    \"type\": \"integer\","
             + "                    \"default\": 1"
             + "                },"
+            + "                \"eventLoopPoolSize\": {"
+            + "                    \"description\": \"Number of event loops the client verticles are spread over. Defaults to 2x cpu cores.\","
+            + "                    \"type\": \"integer\""
+            + "                },"
             + "                \"numberOfConnections\": {"
-            + "                    \"description\": \"Number of connections. How many connections should each client/thread get?\","
+            + "                    \"description\": \"Number of connections. How many connections should each client get? With HTTP/1.1 this is the size of the connection pool of each client.\","
             + "                    \"type\": \"integer\","
             + "                    \"default\": 1"
             + "                },"
             + "                \"multiplexingLimit\": {"
-            + "                    \"description\": \"Multiplexing limit. How many streams/transactions should each connection support?\","
+            + "                    \"description\": \"Multiplexing limit. How many streams/transactions should each connection support? HTTP/2 only.\","
             + "                    \"type\": \"integer\","
             + "                    \"default\": 1000"
             + "                },"
+            + "                \"protocol\": {"
+            + "                    \"description\": \"HTTP version the clients send with. HTTP_2 multiplexes up to multiplexingLimit requests on every connection, HTTP_1_1 sends one request at a time on every connection, or up to pipeliningLimit with pipelining.\","
+            + "                    \"type\": \"string\","
+            + "                    \"enum\": ["
+            + "                        \"HTTP_2\","
+            + "                        \"HTTP_1_1\""
+            + "                    ],"
+            + "                    \"default\": \"HTTP_2\""
+            + "                },"
+            + "                \"keepAlive\": {"
+            + "                    \"description\": \"HTTP/1.1 only. Whether connections are kept open for the next request. Otherwise every request opens a new connection.\","
+            + "                    \"type\": \"boolean\","
+            + "                    \"default\": true"
+            + "                },"
+            + "                \"pipeliningLimit\": {"
+            + "                    \"description\": \"HTTP/1.1 only. How many requests are sent on a connection before their responses arrived. One disables pipelining, requires keepAlive otherwise.\","
+            + "                    \"type\": \"integer\","
+            + "                    \"default\": 1"
+            + "                },"
+            + "                \"streamResponses\": {"
+            + "                    \"description\": \"Whether response bodies are counted as they stream in instead of being buffered. Streamed responses fail on their status as soon as the headers arrive, and their time to first byte is reported as Time To First Byte next to the latency, which is the time to last byte.\","
+            + "                    \"type\": \"boolean\","
+            + "                    \"default\": false"
+            + "                },"
+            + "                \"engine\": {"
+            + "                    \"description\": \"Http client the requests are sent with. WEBCLIENT sends with the vertx web client. CORE sends with the core http client of vertx, without the codecs, interceptors and futures of the web client, and always streams response bodies.\","
+            + "                    \"type\": \"string\","
+            + "                    \"enum\": ["
+            + "                        \"webclient\","
+            + "                        \"core\""
+            + "                    ],"
+            + "                    \"default\": \"webclient\""
+            + "                },"
             + "                \"httpMethod\": {"
             + "                    \"description\": \"Method of the HTTP request.\","
             + "                    \"type\": \"string\","
@@ -173,10 +222,299 @@ public class TestConfiguration {
             + "                    \"description\": \"Body of the HTTP request.\","
             + "                    \"type\": \"string\""
             + "                },"
+            + "                \"bodyFile\": {"
+            + "                    \"description\": \"Path of a file (up to 2GB) to send as body of the HTTP request. The file is memory mapped once and shared by all requests. Overrides body.\","
+            + "                    \"type\": \"string\""
+            + "                },"
+            + "                \"feeder\": {"
+            + "                    \"description\": \"Corpus of requests to send instead of always sending the same request. Fields a record does not have are taken from the client configuration.\","
+            + "                    \"type\": \"object\","
+            + "                    \"properties\": {"
+            + "                        \"file\": {"
+            + "                            \"description\": \"Corpus file. jsonl files have one object with optional path, headers and body per line, csv files have a header row where path and body are special columns and any other column is an HTTP header.\","
+            + "                            \"type\": \"string\""
+            + "                        },"
+            + "                        \"format\": {"
+            + "                            \"description\": \"Format of the corpus file. Defaults to csv for .csv files and to jsonl otherwise.\","
+            + "                            \"type\": \"string\","
+            + "                            \"enum\": ["
+            + "                                \"jsonl\","
+            + "                                \"csv\""
+            + "                            ]"
+            + "                        },"
+            + "                        \"order\": {"
+            + "                            \"description\": \"sequential sends records in file order with clients taking turns, random picks records at random, partitioned gives every client a disjoint part of the corpus.\","
+            + "                            \"type\": \"string\","
+            + "                            \"enum\": ["
+            + "                                \"sequential\","
+            + "                                \"random\","
+            + "                                \"partitioned\""
+            + "                            ],"
+            + "                            \"default\": \"sequential\""
+            + "                        }"
+            + "                    },"
+            + "                    \"required\": ["
+            + "                        \"file\""
+            + "                    ]"
+            + "                },"
+            + "                \"scenarios\": {"
+            + "                    \"description\": \"Weighted mix of requests. Requests are picked at random in proportion to the weights and every scenario is reported on its own. Without scenarios the client request is the only scenario.\","
+            + "                    \"type\": \"array\","
+            + "                    \"items\": {"
+            + "                        \"type\": \"object\","
+            + "                        \"properties\": {"
+            + "                            \"name\": {"
+            + "                                \"description\": \"Name the metrics of the scenario are reported under. Defaults to the method and path.\","
+            + "                                \"type\": \"string\""
+            + "                            },"
+            + "                            \"weight\": {"
+            + "                                \"description\": \"Share of the requests relative to the other scenarios. Zero disables the scenario.\","
+            + "                                \"type\": \"integer\","
+            + "                                \"minimum\": 0,"
+            + "                                \"default\": 1"
+            + "                            },"
+            + "                            \"httpMethod\": {"
+            + "                                \"description\": \"Method of the HTTP request. Defaults to the client method.\","
+            + "                                \"type\": \"string\","
+            + "                                \"enum\": ["
+            + "                                    \"GET\","
+            + "                                    \"HEAD\","
+            + "                                    \"POST\","
+            + "                                    \"PUT\","
+            + "                                    \"DELETE\","
+            + "                                    \"CONNECT\","
+            + "                                    \"OPTIONS\","
+            + "                                    \"TRACE\","
+            + "                                    \"PATCH\""
+            + "                                ]"
+            + "                            },"
+            + "                            \"path\": {"
+            + "                                \"description\": \"Path of the HTTP request. Defaults to the client path.\","
+            + "                                \"type\": \"string\""
+            + "                            },"
+            + "                            \"headers\": {"
+            + "                                \"description\": \"Headers added to the client headers.\","
+            + "                                \"type\": \"array\","
+            + "                                \"items\": {"
+            + "                                    \"type\": \"object\","
+            + "                                    \"properties\": {"
+            + "                                        \"name\": {"
+            + "                                            \"description\": \"Name of the header.\","
+            + "                                            \"type\": \"string\""
+            + "                                        },"
+            + "                                        \"value\": {"
+            + "                                            \"description\": \"Value of the header.\","
+            + "                                            \"type\": \"string\""
+            + "                                        }"
+            + "                                    },"
+            + "                                    \"required\": ["
+            + "                                        \"name\","
+            + "                                        \"value\""
+            + "                                    ]"
+            + "                                }"
+            + "                            },"
+            + "                            \"body\": {"
+            + "                                \"description\": \"Body of the HTTP request. Replaces the client body and body file.\","
+            + "                                \"type\": \"string\""
+            + "                            },"
+            + "                            \"bodyFile\": {"
+            + "                                \"description\": \"Path of a file to send as body of the HTTP request. Replaces the client body and body file.\","
+            + "                                \"type\": \"string\""
+            + "                            },"
+            + "                            \"expectedStatusCode\": {"
+            + "                                \"description\": \"Status code expected in the response. Defaults to the client expected status code.\","
+            + "                                \"type\": \"integer\""
+            + "                            }"
+            + "                        }"
+            + "                    }"
+            + "                },"
+            + "                \"stages\": {"
+            + "                    \"description\": \"Load profile, stages run one after the other and the clients stop after the last one. Every stage sets either requestsPerSecond or concurrency, all stages must set the same one. Replaces requestsPerSecond.\","
+            + "                    \"type\": \"array\","
+            + "                    \"items\": {"
+            + "                        \"type\": \"object\","
+            + "                        \"properties\": {"
+            + "                            \"name\": {"
+            + "                                \"description\": \"Name the metrics of the stage are tagged with. Defaults to stage-1, stage-2, ...\","
+            + "                                \"type\": \"string\""
+            + "                            },"
+            + "                            \"durationSeconds\": {"
+            + "                                \"description\": \"Length of the stage including its ramp.\","
+            + "                                \"type\": \"integer\","
+            + "                                \"minimum\": 1"
+            + "                            },"
+            + "                            \"rampSeconds\": {"
+            + "                                \"description\": \"Length of the linear ramp from the target of the previous stage to the target of this stage. The first stage ramps up from zero. Zero steps to the target at once.\","
+            + "                                \"type\": \"integer\","
+            + "                                \"minimum\": 0,"
+            + "                                \"default\": 0"
+            + "                            },"
+            + "                            \"requestsPerSecond\": {"
+            + "                                \"description\": \"Target rate for all clients combined (open loop).\","
+            + "                                \"type\": \"integer\","
+            + "                                \"minimum\": 0"
+            + "                            },"
+            + "                            \"concurrency\": {"
+            + "                                \"description\": \"Target number of concurrent requests for all clients combined (closed loop), capped at number of connections x multiplexing limit per client.\","
+            + "                                \"type\": \"integer\","
+            + "                                \"minimum\": 0"
+            + "                            }"
+            + "                        },"
+            + "                        \"required\": ["
+            + "                            \"durationSeconds\""
+            + "                        ]"
+            + "                    }"
+            + "                },"
+            + "                \"search\": {"
+            + "                    \"description\": \"Search for the highest request rate that meets the latency and error rate objective, then report it and stop. Replaces stages and requestsPerSecond.\","
+            + "                    \"type\": \"object\","
+            + "                    \"properties\": {"
+            + "                        \"maxP99Millis\": {"
+            + "                            \"description\": \"Highest p99 latency of a sustainable rate.\","
+            + "                            \"type\": \"number\","
+            + "                            \"default\": 100"
+            + "                        },"
+            + "                        \"maxErrorRate\": {"
+            + "                            \"description\": \"Highest share of failed requests of a sustainable rate.\","
+            + "                            \"type\": \"number\","
+            + "                            \"default\": 0.001"
+            + "                        },"
+            + "                        \"startRequestsPerSecond\": {"
+            + "                            \"description\": \"Rate of the first trial. The rate doubles until a trial fails, then the search bisects.\","
+            + "                            \"type\": \"integer\","
+            + "                            \"default\": 1000"
+            + "                        },"
+            + "                        \"maxRequestsPerSecond\": {"
+            + "                            \"description\": \"Highest rate to try. Zero doubles until a trial fails.\","
+            + "                            \"type\": \"integer\","
+            + "                            \"default\": 0"
+            + "                        },"
+            + "                        \"warmupSeconds\": {"
+            + "                            \"description\": \"Warm up of every trial, not evaluated.\","
+            + "                            \"type\": \"integer\","
+            + "                            \"default\": 5"
+            + "                        },"
+            + "                        \"windowSeconds\": {"
+            + "                            \"description\": \"Window every trial is evaluated over. At least 95% of its requests must complete within a second after it.\","
+            + "                            \"type\": \"integer\","
+            + "                            \"default\": 30"
+            + "                        },"
+            + "                        \"precision\": {"
+            + "                            \"description\": \"Search stops once the sustainable and failing rates are closer than this share of the failing rate.\","
+            + "                            \"type\": \"number\","
+            + "                            \"default\": 0.05"
+            + "                        },"
+            + "                        \"maxTrials\": {"
+            + "                            \"description\": \"Most trials to run.\","
+            + "                            \"type\": \"integer\","
+            + "                            \"default\": 20"
+            + "                        }"
+            + "                    }"
+            + "                },"
             + "                \"expectedStatusCode\": {"
             + "                    \"description\": \"What status code should I expect in the response?\","
             + "                    \"type\": \"integer\","
             + "                    \"default\": 200"
+            + "                },"
+            + "                \"stopOnError\": {"
+            + "                    \"description\": \"Stop all clients on the first failed request or unexpected status code. Otherwise errors are counted and reported. A search always counts errors.\","
+            + "                    \"type\": \"boolean\","
+            + "                    \"default\": true"
+            + "                },"
+            + "                \"resultsFile\": {"
+            + "                    \"description\": \"Path of a binary file the one second reports of the client are appended to. Convert it with the convert command. Agents of a coordinator append the agent index to the path.\","
+            + "                    \"type\": \"string\""
+            + "                },"
+            + "                \"metricsPort\": {"
+            + "                    \"description\": \"Port of an OpenMetrics endpoint at /metrics for Prometheus to scrape. The endpoint runs on its own vertx instance. Zero disables the endpoint.\","
+            + "                    \"type\": \"integer\","
+            + "                    \"default\": 0"
+            + "                },"
+            + "                \"metricsHost\": {"
+            + "                    \"description\": \"Host the OpenMetrics endpoint listens on.\","
+            + "                    \"type\": \"string\","
+            + "                    \"default\": \"0.0.0.0\""
+            + "                },"
+            + "                \"requestsPerSecond\": {"
+            + "                    \"description\": \"Target requests per second for all clients combined. Requests are sent on a fixed schedule whether or not responses came back. Zero means closed loop.\","
+            + "                    \"type\": \"integer\","
+            + "                    \"default\": 0"
+            + "                },"
+            + "                \"transport\": {"
+            + "                    \"description\": \"Transport and socket options.\","
+            + "                    \"type\": \"object\","
+            + "                    \"properties\": {"
+            + "                        \"type\": {"
+            + "                            \"description\": \"Netty transport. Native transports fall back to nio when their library cannot be loaded. io_uring is not supported by vertx 4 and falls back to epoll/kqueue.\","
+            + "                            \"type\": \"string\","
+            + "                            \"enum\": ["
+            + "                                \"nio\","
+            + "                                \"epoll\","
+            + "                                \"kqueue\","
+            + "                                \"io_uring\""
+            + "                            ],"
+            + "                            \"default\": \"nio\""
+            + "                        },"
+            + "                        \"reusePort\": {"
+            + "                            \"description\": \"Enable SO_REUSEPORT.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": false"
+            + "                        },"
+            + "                        \"tcpNoDelay\": {"
+            + "                            \"description\": \"Enable TCP_NODELAY.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": true"
+            + "                        },"
+            + "                        \"tcpQuickAck\": {"
+            + "                            \"description\": \"Enable TCP_QUICKACK. Epoll only.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": false"
+            + "                        },"
+            + "                        \"sendBufferSize\": {"
+            + "                            \"description\": \"Socket send buffer size in bytes. -1 uses the os default.\","
+            + "                            \"type\": \"integer\","
+            + "                            \"default\": -1"
+            + "                        },"
+            + "                        \"receiveBufferSize\": {"
+            + "                            \"description\": \"Socket receive buffer size in bytes. -1 uses the os default.\","
+            + "                            \"type\": \"integer\","
+            + "                            \"default\": -1"
+            + "                        }"
+            + "                    }"
+            + "                },"
+            + "                \"tls\": {"
+            + "                    \"description\": \"TLS with ALPN, h2 or HTTP/1.1 is negotiated instead of sent as clear text. Handshake rate and latency are reported as TLS Handshakes, apart from the requests. Clear text if not set.\","
+            + "                    \"type\": \"object\","
+            + "                    \"properties\": {"
+            + "                        \"engine\": {"
+            + "                            \"description\": \"SSL engine. openssl uses the statically linked BoringSSL of netty-tcnative and falls back to jdk when it cannot be loaded.\","
+            + "                            \"type\": \"string\","
+            + "                            \"enum\": ["
+            + "                                \"jdk\","
+            + "                                \"openssl\""
+            + "                            ],"
+            + "                            \"default\": \"jdk\""
+            + "                        },"
+            + "                        \"trustStore\": {"
+            + "                            \"description\": \"PKCS12 trust store. If not set any certificate is trusted and the host is not verified.\","
+            + "                            \"type\": \"string\""
+            + "                        },"
+            + "                        \"password\": {"
+            + "                            \"description\": \"Password of the key store or trust store.\","
+            + "                            \"type\": \"string\","
+            + "                            \"default\": \"vertx-load-tester\""
+            + "                        },"
+            + "                        \"sessionCache\": {"
+            + "                            \"description\": \"Cache sessions so following connections resume them with an abbreviated handshake. When false every connection runs a full handshake. Can only be false on the openssl engine.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": true"
+            + "                        },"
+            + "                        \"sessionTickets\": {"
+            + "                            \"description\": \"Resume sessions with session tickets, so the server does not have to keep them. Without tickets sessions resume from the session cache of the server. Can only be false on the openssl engine.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": true"
+            + "                        }"
+            + "                    }"
             + "                }"
             + "            }"
             + "        },"
@@ -224,13 +562,31 @@ public class TestConfiguration {
             + "                    \"description\": \"Body of the HTTP response.\","
             + "                    \"type\": \"string\""
             + "                },"
+            + "                \"bodyFile\": {"
+            + "                    \"description\": \"Path of a file to send as body of the HTTP response using send file. Overrides body.\","
+            + "                    \"type\": \"string\""
+            + "                },"
             + "                \"multiplexingLimit\": {"
-            + "                    \"description\": \"Multiplexing limit. How many streams/transactions should each connection support?\","
+            + "                    \"description\": \"Multiplexing limit. How many streams/transactions should each connection support? HTTP/2 only.\","
             + "                    \"type\": \"integer\","
             + "                    \"default\": 1000"
             + "                },"
+            + "                \"protocol\": {"
+            + "                    \"description\": \"HTTP versions the server accepts. HTTP_2 accepts HTTP/2 without upgrade and HTTP/1.1, HTTP_1_1 accepts HTTP/1.1 only.\","
+            + "                    \"type\": \"string\","
+            + "                    \"enum\": ["
+            + "                        \"HTTP_2\","
+            + "                        \"HTTP_1_1\""
+            + "                    ],"
+            + "                    \"default\": \"HTTP_2\""
+            + "                },"
+            + "                \"keepAlive\": {"
+            + "                    \"description\": \"HTTP/1.1 only. Whether connections are kept open after a response. Otherwise the server closes the connection after every response.\","
+            + "                    \"type\": \"boolean\","
+            + "                    \"default\": true"
+            + "                },"
             + "                \"blockingMillis\": {"
-            + "                    \"description\": \"Should be zero unless you want to simulate the duration it takes to execute service logic.\","
+            + "                    \"description\": \"Should be zero unless you want to simulate the duration it takes to execute service logic. Runs CPU work calibrated to take this long on an idle core, like work in micros. This is an amount of work rather than wall clock time, under load it takes longer.\","
             + "                    \"type\": \"integer\","
             + "                    \"default\": 0"
             + "                },"
@@ -238,6 +594,223 @@ public class TestConfiguration {
             + "                    \"description\": \"Should be false unless you want to offload request processing to worker-thread instead of event-loop-thread.\","
             + "                    \"type\": \"boolean\","
             + "                    \"default\": false"
+            + "                },"
+            + "                \"blockingExecutor\": {"
+            + "                    \"description\": \"Threads that run the service logic when executeBlocking is true. PLATFORM uses a worker pool of blockingPoolSize threads, VIRTUAL starts a virtual thread per request and needs Java 21, otherwise it falls back to PLATFORM.\","
+            + "                    \"type\": \"string\","
+            + "                    \"enum\": ["
+            + "                        \"platform\","
+            + "                        \"virtual\""
+            + "                    ],"
+            + "                    \"default\": \"platform\""
+            + "                },"
+            + "                \"blockingPoolSize\": {"
+            + "                    \"description\": \"Number of platform threads that run the service logic when executeBlocking is true, which caps the number of requests processed at once.\","
+            + "                    \"type\": \"integer\","
+            + "                    \"default\": 20"
+            + "                },"
+            + "                \"delay\": {"
+            + "                    \"description\": \"Simulated service latency. Responses are held on an event loop timer for a delay drawn from the distribution, so slow responses use no CPU while they wait. Delays are in milliseconds, fractions give sub millisecond delays.\","
+            + "                    \"type\": \"object\","
+            + "                    \"properties\": {"
+            + "                        \"distribution\": {"
+            + "                            \"description\": \"Distribution of the delays. Fixed uses millis, uniform minMillis and maxMillis, normal and lognormal meanMillis and stdDevMillis, empirical interpolates between percentiles.\","
+            + "                            \"type\": \"string\","
+            + "                            \"enum\": ["
+            + "                                \"fixed\","
+            + "                                \"uniform\","
+            + "                                \"normal\","
+            + "                                \"lognormal\","
+            + "                                \"empirical\""
+            + "                            ],"
+            + "                            \"default\": \"fixed\""
+            + "                        },"
+            + "                        \"millis\": {"
+            + "                            \"description\": \"Delay of the fixed distribution.\","
+            + "                            \"type\": \"number\""
+            + "                        },"
+            + "                        \"minMillis\": {"
+            + "                            \"description\": \"Lowest delay of the uniform distribution.\","
+            + "                            \"type\": \"number\""
+            + "                        },"
+            + "                        \"maxMillis\": {"
+            + "                            \"description\": \"Highest delay of the uniform distribution.\","
+            + "                            \"type\": \"number\""
+            + "                        },"
+            + "                        \"meanMillis\": {"
+            + "                            \"description\": \"Mean delay of the normal and lognormal distributions.\","
+            + "                            \"type\": \"number\""
+            + "                        },"
+            + "                        \"stdDevMillis\": {"
+            + "                            \"description\": \"Standard deviation of the delay of the normal and lognormal distributions. Normal delays below zero are cut off at zero.\","
+            + "                            \"type\": \"number\""
+            + "                        },"
+            + "                        \"percentiles\": {"
+            + "                            \"description\": \"Ascending percentiles of the empirical distribution, for example measured on a real backend.\","
+            + "                            \"type\": \"array\","
+            + "                            \"items\": {"
+            + "                                \"type\": \"object\","
+            + "                                \"properties\": {"
+            + "                                    \"percentile\": {"
+            + "                                        \"description\": \"Percentile between 0 and 100.\","
+            + "                                        \"type\": \"number\""
+            + "                                    },"
+            + "                                    \"millis\": {"
+            + "                                        \"description\": \"Delay at the percentile.\","
+            + "                                        \"type\": \"number\""
+            + "                                    }"
+            + "                                },"
+            + "                                \"required\": ["
+            + "                                    \"percentile\","
+            + "                                    \"millis\""
+            + "                                ]"
+            + "                            }"
+            + "                        }"
+            + "                    }"
+            + "                },"
+            + "                \"work\": {"
+            + "                    \"description\": \"CPU work of the service logic, a SHA-256 hashing kernel that runs on the event loop, or on workers when executeBlocking is true. Set either micros or iterations.\","
+            + "                    \"type\": \"object\","
+            + "                    \"properties\": {"
+            + "                        \"micros\": {"
+            + "                            \"description\": \"CPU time per request on an idle core. Converted to iterations by calibrating the kernel at start up.\","
+            + "                            \"type\": \"integer\""
+            + "                        },"
+            + "                        \"iterations\": {"
+            + "                            \"description\": \"Hashing iterations per request.\","
+            + "                            \"type\": \"integer\""
+            + "                        }"
+            + "                    }"
+            + "                },"
+            + "                \"verticles\": {"
+            + "                    \"description\": \"Number of server verticles to deploy. Connections are assigned to verticles round robin. Defaults to 2x cpu cores.\","
+            + "                    \"type\": \"integer\""
+            + "                },"
+            + "                \"eventLoopPoolSize\": {"
+            + "                    \"description\": \"Number of event loops the server verticles are spread over. Defaults to 2x cpu cores.\","
+            + "                    \"type\": \"integer\""
+            + "                },"
+            + "                \"workerPoolSize\": {"
+            + "                    \"description\": \"Number of vertx worker threads.\","
+            + "                    \"type\": \"integer\","
+            + "                    \"default\": 20"
+            + "                },"
+            + "                \"transport\": {"
+            + "                    \"description\": \"Transport and socket options.\","
+            + "                    \"type\": \"object\","
+            + "                    \"properties\": {"
+            + "                        \"type\": {"
+            + "                            \"description\": \"Netty transport. Native transports fall back to nio when their library cannot be loaded. io_uring is not supported by vertx 4 and falls back to epoll/kqueue.\","
+            + "                            \"type\": \"string\","
+            + "                            \"enum\": ["
+            + "                                \"nio\","
+            + "                                \"epoll\","
+            + "                                \"kqueue\","
+            + "                                \"io_uring\""
+            + "                            ],"
+            + "                            \"default\": \"nio\""
+            + "                        },"
+            + "                        \"reusePort\": {"
+            + "                            \"description\": \"Enable SO_REUSEPORT.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": false"
+            + "                        },"
+            + "                        \"tcpNoDelay\": {"
+            + "                            \"description\": \"Enable TCP_NODELAY.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": true"
+            + "                        },"
+            + "                        \"tcpQuickAck\": {"
+            + "                            \"description\": \"Enable TCP_QUICKACK. Epoll only.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": false"
+            + "                        },"
+            + "                        \"sendBufferSize\": {"
+            + "                            \"description\": \"Socket send buffer size in bytes. -1 uses the os default.\","
+            + "                            \"type\": \"integer\","
+            + "                            \"default\": -1"
+            + "                        },"
+            + "                        \"receiveBufferSize\": {"
+            + "                            \"description\": \"Socket receive buffer size in bytes. -1 uses the os default.\","
+            + "                            \"type\": \"integer\","
+            + "                            \"default\": -1"
+            + "                        }"
+            + "                    }"
+            + "                },"
+            + "                \"tls\": {"
+            + "                    \"description\": \"TLS with ALPN, h2 or HTTP/1.1 is negotiated instead of sent as clear text. Handshake rate and latency are reported as TLS Handshakes, apart from the requests. Clear text if not set.\","
+            + "                    \"type\": \"object\","
+            + "                    \"properties\": {"
+            + "                        \"engine\": {"
+            + "                            \"description\": \"SSL engine. openssl uses the statically linked BoringSSL of netty-tcnative and falls back to jdk when it cannot be loaded.\","
+            + "                            \"type\": \"string\","
+            + "                            \"enum\": ["
+            + "                                \"jdk\","
+            + "                                \"openssl\""
+            + "                            ],"
+            + "                            \"default\": \"jdk\""
+            + "                        },"
+            + "                        \"keyStore\": {"
+            + "                            \"description\": \"PKCS12 key store. A self signed certificate for localhost is generated into it with keytool if the file does not exist.\","
+            + "                            \"type\": \"string\","
+            + "                            \"default\": \"vertx-load-tester.p12\""
+            + "                        },"
+            + "                        \"password\": {"
+            + "                            \"description\": \"Password of the key store or trust store.\","
+            + "                            \"type\": \"string\","
+            + "                            \"default\": \"vertx-load-tester\""
+            + "                        },"
+            + "                        \"sessionCache\": {"
+            + "                            \"description\": \"Cache sessions so following connections resume them with an abbreviated handshake. When false every connection runs a full handshake. Can only be false on the openssl engine.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": true"
+            + "                        },"
+            + "                        \"sessionTickets\": {"
+            + "                            \"description\": \"Resume sessions with session tickets, so the server does not have to keep them. Without tickets sessions resume from the session cache of the server. Can only be false on the openssl engine.\","
+            + "                            \"type\": \"boolean\","
+            + "                            \"default\": true"
+            + "                        }"
+            + "                    }"
+            + "                },"
+            + "                \"resultsFile\": {"
+            + "                    \"description\": \"Path of a binary file the one second reports of the server are appended to. Convert it with the convert command.\","
+            + "                    \"type\": \"string\""
+            + "                },"
+            + "                \"metricsPort\": {"
+            + "                    \"description\": \"Port of an OpenMetrics endpoint at /metrics for Prometheus to scrape. The endpoint runs on its own vertx instance. Zero disables the endpoint.\","
+            + "                    \"type\": \"integer\","
+            + "                    \"default\": 0"
+            + "                },"
+            + "                \"metricsHost\": {"
+            + "                    \"description\": \"Host the OpenMetrics endpoint listens on.\","
+            + "                    \"type\": \"string\","
+            + "                    \"default\": \"0.0.0.0\""
+            + "                }"
+            + "            }"
+            + "        },"
+            + "        \"coordinator\": {"
+            + "            \"description\": \"Coordinator configuration, used with the client configuration to run the client load on several agents.\","
+            + "            \"type\": \"object\","
+            + "            \"properties\": {"
+            + "                \"host\": {"
+            + "                    \"description\": \"Host the coordinator listens on for agents.\","
+            + "                    \"type\": \"string\","
+            + "                    \"default\": \"localhost\""
+            + "                },"
+            + "                \"port\": {"
+            + "                    \"description\": \"Port the coordinator listens on for agents.\","
+            + "                    \"type\": \"integer\","
+            + "                    \"default\": 7070"
+            + "                },"
+            + "                \"agents\": {"
+            + "                    \"description\": \"Number of agents the client load is split over. The test starts once all of them connected. Rates, concurrency and clients of the client are split evenly, so a closed loop is split with its clients. A rate needs at least one request per second and there must be at least one client for each agent.\","
+            + "                    \"type\": \"integer\","
+            + "                    \"default\": 1"
+            + "                },"
+            + "                \"startDelayMillis\": {"
+            + "                    \"description\": \"Time between sending the start to the agents and the agents starting, so all of them start at the same time.\","
+            + "                    \"type\": \"integer\","
+            + "                    \"default\": 1000"
             + "                }"
             + "            }"
             + "        }"
@@ -0,0 +1,125 @@
+/*
+ * TlsConfiguration.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Contains TLS configuration, used by client and server. Without it both
+ * speak clear text.
+ */
+public class TlsConfiguration {
+
+    /**
+     * SSL engine the handshakes and record encryption run on.
+     */
+    public enum Engine {
+        JDK, OPENSSL
+    }
+
+    private final Engine engine;
+    private final String keyStore;
+    private final String trustStore;
+    private final String password;
+    private final boolean sessionCache;
+    private final boolean sessionTickets;
+
+    public TlsConfiguration(JsonObject config) {
+
+        this.engine = Engine.valueOf(config.getString("engine", "jdk").toUpperCase());
+        this.keyStore = config.getString("keyStore", "vertx-load-tester.p12");
+        this.trustStore = config.getString("trustStore", null);
+        this.password = config.getString("password", "vertx-load-tester");
+        this.sessionCache = config.getBoolean("sessionCache", true);
+        this.sessionTickets = config.getBoolean("sessionTickets", true);
+
+        this.validate();
+    }
+
+    public TlsConfiguration(Engine engine, String keyStore, String trustStore,
+            String password, boolean sessionCache, boolean sessionTickets) {
+
+        this.engine = engine;
+        this.keyStore = keyStore;
+        this.trustStore = trustStore;
+        this.password = password;
+        this.sessionCache = sessionCache;
+        this.sessionTickets = sessionTickets;
+
+        this.validate();
+    }
+
+    /**
+     * Only OpenSSL has switches for the session cache and session tickets of
+     * an SSL context, the JDK only has process wide properties.
+     */
+    private void validate() {
+        if (engine == Engine.JDK && (!sessionCache || !sessionTickets)) {
+            throw new IllegalArgumentException(
+                    "Session cache and session tickets can only be switched off on the [openssl] engine.");
+        }
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * PKCS12 key store of the server. A self signed certificate for
+     * localhost is generated into it if the file does not exist.
+     *
+     * @return path of the key store
+     */
+    public String getKeyStore() {
+        return keyStore;
+    }
+
+    /**
+     * PKCS12 trust store of the client.
+     *
+     * @return path of the trust store, or null to trust any certificate
+     * without verifying the host
+     */
+    public String getTrustStore() {
+        return trustStore;
+    }
+
+    /**
+     * @return password of the key store and of the trust store
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Whether sessions are cached after a full handshake so following
+     * connections can resume them with an abbreviated handshake. Can only be
+     * switched off on the OpenSSL engine.
+     *
+     * @return false to run a full handshake on every connection
+     */
+    public boolean isSessionCache() {
+        return sessionCache;
+    }
+
+    /**
+     * Whether the server hands out session tickets, so sessions resume
+     * without the server keeping them. Without tickets sessions resume from
+     * the session cache of the server. Can only be switched off on the
+     * OpenSSL engine.
+     *
+     * @return false to disable session tickets
+     */
+    public boolean isSessionTickets() {
+        return sessionTickets;
+    }
+
+}
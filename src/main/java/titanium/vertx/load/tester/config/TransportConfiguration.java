@@ -0,0 +1,92 @@
+/*
+ * TransportConfiguration.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Contains transport and socket configuration, used by client and server.
+ */
+public class TransportConfiguration {
+
+    /**
+     * Netty transport vertx should run on.
+     */
+    public enum Type {
+        NIO, EPOLL, KQUEUE, IO_URING
+    }
+
+    private final Type type;
+    private final boolean reusePort;
+    private final boolean tcpNoDelay;
+    private final boolean tcpQuickAck;
+    private final int sendBufferSize;
+    private final int receiveBufferSize;
+
+    public TransportConfiguration(JsonObject config) {
+
+        this.type = Type.valueOf(config.getString("type", "nio").toUpperCase());
+        this.reusePort = config.getBoolean("reusePort", false);
+        this.tcpNoDelay = config.getBoolean("tcpNoDelay", true);
+        this.tcpQuickAck = config.getBoolean("tcpQuickAck", false);
+        this.sendBufferSize = config.getInteger("sendBufferSize", -1);
+        this.receiveBufferSize = config.getInteger("receiveBufferSize", -1);
+    }
+
+    public TransportConfiguration(Type type, boolean reusePort, boolean tcpNoDelay,
+            boolean tcpQuickAck, int sendBufferSize, int receiveBufferSize) {
+
+        this.type = type;
+        this.reusePort = reusePort;
+        this.tcpNoDelay = tcpNoDelay;
+        this.tcpQuickAck = tcpQuickAck;
+        this.sendBufferSize = sendBufferSize;
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return true if a native transport (anything but nio) was requested
+     */
+    public boolean isNative() {
+        return type != Type.NIO;
+    }
+
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public boolean isTcpQuickAck() {
+        return tcpQuickAck;
+    }
+
+    /**
+     * @return socket send buffer size in bytes, -1 to use the os default
+     */
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    /**
+     * @return socket receive buffer size in bytes, -1 to use the os default
+     */
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+}
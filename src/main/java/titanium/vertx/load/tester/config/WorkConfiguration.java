@@ -0,0 +1,58 @@
+/*
+ * WorkConfiguration.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Contains the configuration of the CPU work the server does for every 
+ * request, simulating a CPU heavy service. The work is a fixed number of 
+ * hashing iterations, or the number of iterations calibrated to take a 
+ * number of microseconds on an idle core. It runs on the event loop, or on 
+ * workers when execute blocking is on.
+ */
+public class WorkConfiguration {
+
+    private final long micros;
+    private final long iterations;
+
+    public WorkConfiguration(JsonObject config) {
+        this(config.getLong("micros", 0L), config.getLong("iterations", 0L));
+    }
+
+    public WorkConfiguration(long micros, long iterations) {
+
+        this.micros = micros;
+        this.iterations = iterations;
+
+        if (micros < 0 || iterations < 0 || (micros > 0) == (iterations > 0)) {
+            throw new IllegalArgumentException(
+                    "Work must set either a positive micros or a positive iterations.");
+        }
+    }
+
+    /**
+     * @return CPU time of the work per request on an idle core, zero when 
+     * iterations are set instead
+     */
+    public long getMicros() {
+        return micros;
+    }
+
+    /**
+     * @return hashing iterations per request, zero when micros are set 
+     * instead
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Agent.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+import java.lang.management.ManagementFactory;
+import titanium.vertx.load.tester.config.ClientConfiguration;
+
+/**
+ * Runs its share of the client load for a coordinator. The agent connects
+ * to the coordinator, waits for its client configuration and start time,
+ * and reports the totals of its clients every second until it is stopped.
+ *
+ * Clients run on their own vertx instance, configured like a client started
+ * on its own, the control channel stays on the vertx of the agent.
+ */
+public class Agent extends AbstractVerticle {
+
+    private final String host;
+    private final int port;
+    private final String name;
+    private NetSocket socket = null;
+    private VertxLoadTester tester = null;
+    private long reportTimerId = -1;
+    private long startTime = 0; // nano time the clients started at
+    private boolean stopped = false;
+
+    /**
+     * @param host of the coordinator
+     * @param port of the coordinator
+     */
+    public Agent(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.name = ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) throws Exception {
+
+        vertx.createNetClient()
+                .connect(port, host)
+                .onSuccess(connected -> {
+                    socket = connected;
+                    RecordParser.newDelimited("\n", socket).handler(line -> this.handle(new JsonObject(line)));
+                    socket.closeHandler(handler -> {
+                        if (!stopped) {
+                            System.out.println("Coordinator disconnected.");
+                            this.stop(false);
+                        }
+                    });
+                    System.out.printf("Agent [%s] connected to coordinator [%s:%s].\n", name, host, port);
+                    this.send(new JsonObject().put("type", "hello").put("agent", name));
+                    startPromise.complete();
+                })
+                .onFailure(startPromise::fail);
+    }
+
+    private void handle(JsonObject message) {
+        switch (message.getString("type", "")) {
+            case "start":
+                this.startClients(message.getJsonObject("client"), message.getLong("startAt"));
+                break;
+            case "stop":
+                this.stop(true);
+                break;
+            case "reject":
+                System.out.println("Agent rejected by coordinator, all agents connected.");
+                this.stop(false);
+                break;
+            default:
+                System.out.printf("Unknown message from coordinator [%s].\n", message.encode());
+        }
+    }
+
+    private void startClients(JsonObject client, long startAt) {
+
+        ClientConfiguration config = new ClientConfiguration(client);
+        VertxOptions options = new VertxOptions()
+                .setEventLoopPoolSize(config.getEventLoopPoolSize());
+        tester = new VertxLoadTester(Transport.createVertx(options, config.getTransport()), config);
+
+        vertx.setTimer(Math.max(1, startAt - System.currentTimeMillis()), handler -> {
+            if (stopped) {
+                return;
+            }
+            System.out.printf("Agent [%s] starting clients.\n", name);
+            startTime = System.nanoTime();
+            tester.start();
+            reportTimerId = vertx.setPeriodic(1_000, report -> this.send(new JsonObject()
+                    .put("type", "report")
+                    .put("metrics", tester.getMetrics().snapshot().toJson())));
+        });
+    }
+
+    /**
+     * Stops the clients and the agent.
+     *
+     * @param report whether to send the final totals to the coordinator
+     */
+    private void stop(boolean report) {
+
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+
+        vertx.cancelTimer(reportTimerId);
+        if (tester == null) {
+            socket.close().onComplete(handler -> vertx.close());
+            return;
+        }
+
+        // clients wait a sec for their transactions to complete
+        tester.interrupt();
+        long durationNanos = startTime == 0 ? 0 : System.nanoTime() - startTime;
+        vertx.setTimer(1_500, handler -> {
+            if (report) {
+                this.send(new JsonObject()
+                        .put("type", "final")
+                        .put("metrics", tester.getMetrics().snapshot().toJson()));
+            }
+            System.out.printf("Agent [%s] stopped.\n", name);
+            tester.getMetrics().printSummary(durationNanos);
+            socket.close().onComplete(closed -> vertx.close());
+        });
+    }
+
+    private void send(JsonObject message) {
+        socket.write(Buffer.buffer(message.encode()).appendString("\n"));
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * BodySource.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates body buffers that are encoded or loaded once and then shared by
+ * every request or response. The buffers are off heap and unreleasable,
+ * vertx writes a duplicate of them so their content is never copied.
+ */
+public class BodySource {
+
+    /**
+     * @param body string to encode as utf-8
+     * @return direct buffer with the encoded body, or null if body is null
+     */
+    public static Buffer fromString(String body) {
+        if (body == null) {
+            return null;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return wrap(Unpooled.unreleasableBuffer(Unpooled.directBuffer(bytes.length).writeBytes(bytes)));
+    }
+
+    /**
+     * Memory maps a file read only. The file is paged in by the os on demand
+     * and all in flight requests share the same pages, so a large body costs
+     * no heap no matter how many requests are sending it.
+     *
+     * @param pathName of the file, at most 2GB
+     * @return buffer backed by the mapped file
+     */
+    public static Buffer fromFile(String pathName) {
+        return wrap(mapFile(pathName));
+    }
+
+    /**
+     * Memory maps a file read only, like {@link #fromFile(String)}, for 
+     * readers that index the file themselves.
+     *
+     * @param pathName of the file, at most 2GB
+     * @return unreleasable netty buffer backed by the mapped file
+     */
+    static ByteBuf mapFile(String pathName) {
+
+        Path path = Paths.get(pathName);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(String.format(
+                        "Body file [%s] is larger than 2GB.", pathName));
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(mapped));
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(String.format("Could not map body file [%s].", pathName), ex);
+        }
+    }
+
+    /**
+     * Wraps a netty buffer without copying it. Vertx 4 deprecates its netty 
+     * buffer methods without a public replacement that wraps, and copying 
+     * would put every shared body back on the heap, so this is the only 
+     * place that calls them.
+     *
+     * @param byteBuf to wrap, its content is shared
+     * @return vertx buffer backed by byteBuf
+     */
+    @SuppressWarnings("deprecation")
+    static Buffer wrap(ByteBuf byteBuf) {
+        return Buffer.buffer(byteBuf);
+    }
+
+}
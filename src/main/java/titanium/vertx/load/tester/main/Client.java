@@ -10,112 +10,549 @@
  */
 package titanium.vertx.load.tester.main;
 
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
-import io.vertx.core.Vertx;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.RequestOptions;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import io.vertx.ext.web.client.predicate.ResponsePredicate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 import titanium.vertx.load.tester.config.ClientConfiguration;
+import titanium.vertx.load.tester.config.ClientConfiguration.Engine;
 
 /**
- * A thread that sends requests using a vertx web client.
+ * A verticle that sends requests using its own vertx web client and 
+ * connection pool. One instance is deployed per client and instances are 
+ * spread over the event loops, so every request is created, sent and 
+ * completed on the same event loop without any hand off between threads.
+ * 
+ * Requests are sent each time a response completes, keeping the number of 
+ * open streams at number of connections x multiplexing limit. When a request 
+ * rate is configured requests are sent on a fixed schedule instead (open 
+ * loop). A load profile with stages varies the rate or the number of open 
+ * streams over time.
+ * 
+ * Every request is one of the configured scenarios, picked at random in 
+ * proportion to the scenario weights.
+ * 
+ * Response bodies are buffered, or streamed and only counted. A streamed 
+ * response fails on its status as soon as the headers arrive, and its time 
+ * to first byte is reported apart from the latency, which is always the 
+ * time to last byte.
+ * 
+ * Requests are sent with the web client, or with the core http client of 
+ * vertx, which skips the codecs, interceptors and futures of the web client. 
+ * The core engine sends pre-built request options with headers encoded 
+ * once, always streams response bodies and completes every exchange through 
+ * plain handlers.
  */
-public class Client extends Thread {
+public class Client extends AbstractVerticle {
 
-    private static final AtomicBoolean RUNNING = new AtomicBoolean(true);
-    private final Vertx vertx;
     private final ClientConfiguration config;
     private final Metrics metrics;
-    private final AtomicLong streams = new AtomicLong(0);
+    private final int maxStreams;
+    private final int index;
+    private final Supplier<LoadProfile> profiles;
+    private LoadProfile profile; // only touched on the event loop of this client
+    private int targetStreams; // only touched on the event loop of this client
+    private boolean running = false; // only touched on the event loop of this client
+    private int streams = 0; // only touched on the event loop of this client
+    private long scheduled = 0; // requests sent by the open loop schedule
+    private WebClient client; // null on the core engine
+    private HttpClient httpClient; // null on the web client engine
+    private final Scenario[] scenarios;
+    private final List<HttpRequest<ResponseBody>> requests; // one per scenario, web client engine
+    private final List<HttpRequest<ResponseBody>> feedRequests; // one per scenario, reused for every record
+    private final int[] feedRecords; // record each feed request carries the headers of, -1 if none
+    private final RequestOptions[] coreRequests; // one per scenario
+    private final RequestOptions[] coreFeedRequests; // one per scenario, reused for every record
+    private final ScenarioSelector selector;
+    private final Feeder feeder;
+    private final Feeder.Cursor cursor;
+    private final Tls tls;
+    private final Metrics firstByteMetrics; // null unless responses are streamed
 
-    public Client(Vertx vertx, ClientConfiguration config, Metrics metrics) {
-        this.vertx = vertx;
+    /**
+     * Creates a client.
+     * 
+     * @param config for the client
+     * @param metrics shared by all clients
+     * @param scenarios shared by all clients
+     * @param feeder shared by all clients, or null to send the same request
+     * @param index of this client, starting at zero
+     * @param profiles supplies the current profile shared by all clients, 
+     * or null to keep every stream busy until stopped
+     * @param tls shared by all clients, or null to send clear text
+     * @param firstByteMetrics shared by all clients, or null to not report 
+     * the time to first byte
+     */
+    public Client(ClientConfiguration config, Metrics metrics, List<Scenario> scenarios, 
+            Feeder feeder, int index, Supplier<LoadProfile> profiles, Tls tls, 
+            Metrics firstByteMetrics) {
         this.config = config;
         this.metrics = metrics;
+        this.scenarios = scenarios.toArray(new Scenario[0]);
+        this.requests = new ArrayList<>(scenarios.size());
+        this.feedRequests = new ArrayList<>(scenarios.size());
+        this.feedRecords = new int[scenarios.size()];
+        this.coreRequests = new RequestOptions[scenarios.size()];
+        this.coreFeedRequests = new RequestOptions[scenarios.size()];
+        this.feeder = feeder;
+        this.cursor = feeder == null ? null : feeder.cursor(index, config.getNumberOfClients());
+        this.maxStreams = config.getNumberOfConnections() * config.getStreamsPerConnection();
+        this.targetStreams = maxStreams;
+        this.index = index;
+        this.profiles = profiles;
+        this.tls = tls;
+        this.firstByteMetrics = firstByteMetrics;
+        
+        int[] weights = new int[scenarios.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = scenarios.get(i).getConfig().getWeight();
+        }
+        this.selector = new ScenarioSelector(weights, System.nanoTime() + index);
     }
 
     @Override
-    public void run() {
+    public void start() throws Exception {
 
-        RUNNING.set(true);
-        metrics.start();
+        running = true;
+        profile = profiles == null ? null : profiles.get();
 
-        // create web client options
+        // create web client options, h2 multiplexes streams on a few 
+        // connections, HTTP/1.1 pools connections and optionally pipelines
         WebClientOptions options = new WebClientOptions()
-                .setProtocolVersion(HttpVersion.HTTP_2)
-                .setHttp2ClearTextUpgrade(false)
-                .setHttp2MaxPoolSize(config.getNumberOfConnections())
-                .setHttp2MultiplexingLimit(config.getMultiplexingLimit());
+                .setProtocolVersion(config.getProtocol());
+        if (config.getProtocol() == HttpVersion.HTTP_2) {
+            options.setHttp2ClearTextUpgrade(false)
+                    .setHttp2MaxPoolSize(config.getNumberOfConnections())
+                    .setHttp2MultiplexingLimit(config.getMultiplexingLimit());
+        } else {
+            options.setKeepAlive(config.isKeepAlive())
+                    .setMaxPoolSize(config.getNumberOfConnections())
+                    .setPipelining(config.getPipeliningLimit() > 1)
+                    .setPipeliningLimit(config.getPipeliningLimit());
+        }
+        Transport.apply(options, config.getTransport());
+        if (tls != null) {
+            tls.apply(options);
+        }
         
-        // create client
-        WebClient client = WebClient.create(vertx, options);
-
-        // create request
-        HttpRequest<Buffer> request = client.request(config.getHttpMethod(),
-                config.getPort(),
-                config.getHost(),
-                config.getPath());
-
-        // add headers to request
-        request.headers().addAll(config.getHeaders());
-
-        // create body buffer
-        Buffer body = null;
-        if (config.getBody() != null) {
-            body = Buffer.buffer(config.getBody());
-        }
-
-        while (RUNNING.get()) {
-            if (streams.get() <= (config.getNumberOfConnections() * config.getMultiplexingLimit())) {
-                try {
-                    final long requestTime = System.nanoTime();
-                    Future<HttpResponse<Buffer>> future;
-
-                    if (body == null) {
-                        future = request.send();
-                    } else {
-                        future = request.sendBuffer(body);
-                    }
-
-                    streams.incrementAndGet(); // stream opened
-                    future.onComplete(handler -> {
-                        streams.decrementAndGet(); // stream closed
-
-                        if (handler.failed()) {
-                            this.interrupt();
-                            throw new RuntimeException(handler.cause());
-                        } else if (handler.result().statusCode() != config.getExpectedStatusCode()) {
-                            this.interrupt();
-                            throw new RuntimeException(String.format(
-                                    "Expected status code [%s], received [%s].",
-                                    config.getExpectedStatusCode(),
-                                    handler.result().statusCode()));
-                        } else {
-                            long responseTime = System.nanoTime();
-                            metrics.log(responseTime - requestTime);
-                        }
-                    });
-                } catch (Throwable th) {
-                    th.printStackTrace();
-                    this.interrupt();
-                }
+        // create client, its connection pool belongs to this verticle, and 
+        // one request per scenario, with its headers
+        for (int i = 0; i < scenarios.length; i++) {
+            coreRequests[i] = this.createRequestOptions(scenarios[i]);
+            coreFeedRequests[i] = this.createRequestOptions(scenarios[i]);
+            feedRecords[i] = -1;
+        }
+        if (config.getEngine() == Engine.CORE) {
+            httpClient = vertx.createHttpClient(options);
+        } else {
+            client = WebClient.create(vertx, options);
+            for (int i = 0; i < scenarios.length; i++) {
+                requests.add(this.createRequest(scenarios[i], coreRequests[i]));
+                feedRequests.add(this.createRequest(scenarios[i], coreRequests[i]));
+            }
+        }
+
+        if (profile != null && profile.isOpenLoop()) {
+            // open loop, requests are sent on a schedule
+            this.schedule();
+        } else if (profile != null) {
+            // closed loop, the number of open streams follows the profile
+            this.follow();
+        } else {
+            // closed loop, fill every stream once, afterwards each completed 
+            // response sends the next request so no thread has to spin
+            while (running && streams < maxStreams) {
+                this.send(System.nanoTime());
             }
         }
     }
 
     @Override
-    public void interrupt() {
-        if (RUNNING.getAndSet(false)) {
-            vertx.setTimer(1_000, handler -> {
-                // wait a sec for all transactions to complete then close vertx 
-                // else a bunch of broken pipe exceptions could be thrown
-                vertx.close();
+    public void stop(Promise<Void> stopPromise) throws Exception {
+        running = false;
+        vertx.setTimer(1_000, handler -> {
+            // wait a sec for all transactions to complete then close client 
+            // else a bunch of broken pipe exceptions could be thrown
+            // neither exists if start failed before creating it
+            if (client != null) {
+                client.close();
+            }
+            if (httpClient != null) {
+                httpClient.close();
+            }
+            stopPromise.complete();
+        });
+    }
+
+    /**
+     * Sends requests at this client's share of the profile's rate. Every 
+     * request gets an intended send time from the profile and latency is 
+     * measured from that time, so a slow server or a late timer shows up as 
+     * latency instead of silently lowering the offered load. Clients take 
+     * turns on the requests of the whole run, which spreads them evenly. 
+     * When the profile is replaced, like between search trials, counting 
+     * starts over on the new timeline.
+     */
+    private void schedule() {
+
+        final int numberOfClients = config.getNumberOfClients();
+
+        vertx.setPeriodic(1, handler -> {
+            if (!running) {
+                vertx.cancelTimer(handler);
+                return;
+            }
+            
+            LoadProfile current = profiles.get();
+            if (current != profile) {
+                profile = current;
+                scheduled = 0;
+            }
+            
+            // send every request whose intended time has passed
+            long now = System.nanoTime();
+            long intendedTime = profile.timeOf(scheduled * numberOfClients + index);
+            while (intendedTime <= now && running) {
+                this.send(intendedTime);
+                scheduled++;
+                intendedTime = profile.timeOf(scheduled * numberOfClients + index);
+            }
+        });
+    }
+
+    /**
+     * Keeps this client's share of the profile's concurrency open. Streams 
+     * are added right away when the target rises, when it falls completed 
+     * streams are not refilled until the client is back at its target.
+     */
+    private void follow() {
+
+        final int numberOfClients = config.getNumberOfClients();
+
+        vertx.setPeriodic(10, handler -> {
+            if (!running) {
+                vertx.cancelTimer(handler);
+                return;
+            }
+            
+            profile = profiles.get();
+            long now = System.nanoTime();
+            targetStreams = Math.min(maxStreams, profile.getConcurrency(now, index, numberOfClients));
+            while (running && streams < targetStreams) {
+                this.send(now);
+            }
+        });
+    }
+
+    /**
+     * Creates the request options of a scenario. Its headers are encoded 
+     * once by the scenario instead of on every request.
+     * 
+     * @param scenario to create the request of
+     * @return request options, shared by every request of the scenario
+     */
+    private RequestOptions createRequestOptions(Scenario scenario) {
+        return new RequestOptions()
+                .setMethod(scenario.getConfig().getHttpMethod())
+                .setHost(config.getHost())
+                .setPort(config.getPort())
+                .setURI(scenario.getConfig().getPath())
+                .setHeaders(scenario.getHeaders());
+    }
+
+    /**
+     * Creates a request of the web client, which reads the expected status of 
+     * streamed responses on the headers.
+     * 
+     * @param scenario of the request
+     * @param options of the request
+     * @return request of the web client
+     */
+    private HttpRequest<ResponseBody> createRequest(Scenario scenario, RequestOptions options) {
+        HttpRequest<ResponseBody> request = client.request(scenario.getConfig().getHttpMethod(), options)
+                .as(config.isStreamResponses() ? ResponseBody.STREAMING : ResponseBody.BUFFERING);
+        if (config.isStreamResponses()) {
+            // checked on the headers, before any of the body is read
+            request.expect(ResponsePredicate.status(scenario.getConfig().getExpectedStatusCode()));
+        }
+        return request;
+    }
+
+    /**
+     * Points the reused request options of a scenario at the path of a 
+     * record. The options are only read while a request is created, so the 
+     * next record can reuse them. They keep the headers of the scenario, the 
+     * exchange puts the headers of the record on the request it creates.
+     * 
+     * @param scenarioIndex of the request
+     * @param record number of the feeder
+     * @return request options of the record
+     */
+    private RequestOptions feedOptions(int scenarioIndex, int record) {
+        String path = feeder.getPath(record);
+        if (path == null) {
+            return coreRequests[scenarioIndex];
+        }
+        return coreFeedRequests[scenarioIndex].setURI(path);
+    }
+
+    /**
+     * Points the reused web client request of a scenario at a record. The 
+     * web client reads uri and headers while the request is sent, so the 
+     * next record can reuse it. Only the header names of the previous record 
+     * and of this one are touched, all other headers stay the scenario's. 
+     * The web client still builds its own request options and copies all 
+     * headers on every send, which the core engine avoids.
+     * 
+     * @param scenarioIndex of the request
+     * @param record number of the feeder
+     * @return web client request of the record
+     */
+    private HttpRequest<ResponseBody> feedRequest(int scenarioIndex, int record) {
+        Scenario scenario = scenarios[scenarioIndex];
+        HttpRequest<ResponseBody> request = feedRequests.get(scenarioIndex);
+        String path = feeder.getPath(record);
+        request.uri(path == null ? scenario.getConfig().getPath() : path);
+        
+        int previous = feedRecords[scenarioIndex];
+        if (previous != record) {
+            if (previous >= 0) {
+                feeder.restoreHeaders(previous, request.headers(), scenario.getHeaders());
+            }
+            feeder.putHeaders(record, request.headers());
+            feedRecords[scenarioIndex] = record;
+        }
+        return request;
+    }
+
+    /**
+     * Sends one request. Must only be called from the event loop of this 
+     * client, which is what keeps the stream counter exact without atomics.
+     * 
+     * @param requestTime nano time latency is measured from
+     */
+    private void send(final long requestTime) {
+        try {
+            final int scenarioIndex = selector.next();
+            final Scenario scenario = scenarios[scenarioIndex];
+            Buffer body = scenario.getBody();
+            int record = -1;
+
+            if (feeder != null) {
+                // next record of the corpus, missing values come from the config
+                record = cursor.next();
+                Buffer recordBody = feeder.getBody(record);
+                if (recordBody != null) {
+                    body = recordBody;
+                }
+            }
+
+            streams++; // stream opened
+            metrics.logStarted();
+            if (firstByteMetrics != null) {
+                firstByteMetrics.logStarted();
+            }
+            
+            final long bytesSent = body == null ? 0 : body.length();
+            final LoadProfile requestProfile = profile;
+            
+            if (httpClient != null) {
+                RequestOptions options = record < 0 
+                        ? coreRequests[scenarioIndex] : this.feedOptions(scenarioIndex, record);
+                httpClient.request(options, new Exchange(scenario, record, body, requestTime, requestProfile));
+                return;
+            }
+            
+            HttpRequest<ResponseBody> request = record < 0 
+                    ? requests.get(scenarioIndex) : this.feedRequest(scenarioIndex, record);
+
+            Future<HttpResponse<ResponseBody>> future;
+            if (body == null) {
+                future = request.send();
+            } else {
+                future = request.sendBuffer(body);
+            }
+
+            future.onComplete(handler -> {
+                if (handler.failed()) {
+                    this.complete(scenario, requestTime, requestProfile, handler.cause(), 0, 0, 0, bytesSent);
+                } else {
+                    ResponseBody responseBody = handler.result().body();
+                    this.complete(scenario, requestTime, requestProfile, null, 
+                            handler.result().statusCode(), 
+                            responseBody == null ? 0 : responseBody.getFirstByteTime(), 
+                            responseBody == null ? 0 : responseBody.getBytes(), 
+                            bytesSent);
+                }
             });
+        } catch (Throwable th) {
+            th.printStackTrace();
+            this.shutdown();
+        }
+    }
+
+    /**
+     * Records a completed request, with either engine, and refills its 
+     * stream. Must only be called from the event loop of this client.
+     * 
+     * @param scenario of the request
+     * @param requestTime nano time latency is measured from
+     * @param requestProfile profile the request was sent under
+     * @param failure of the request, or null if a response arrived
+     * @param statusCode of the response
+     * @param firstByteTime nano time the response headers arrived
+     * @param bytesReceived length of the response body
+     * @param bytesSent length of the request body
+     */
+    private void complete(Scenario scenario, long requestTime, LoadProfile requestProfile,
+            Throwable failure, int statusCode, long firstByteTime, long bytesReceived, long bytesSent) {
+        
+        streams--; // stream closed
+
+        if (failure != null || statusCode != scenario.getConfig().getExpectedStatusCode()) {
+
+            if (config.isStopOnError() && config.getSearch() == null) {
+                this.shutdown();
+                if (failure != null) {
+                    throw new RuntimeException(failure);
+                }
+                throw new RuntimeException(String.format(
+                        "Scenario [%s] expected status code [%s], received [%s].",
+                        scenario.getConfig().getName(),
+                        scenario.getConfig().getExpectedStatusCode(),
+                        statusCode));
+            }
+
+            // counted instead, as the search needs the error rate
+            metrics.logError();
+            if (firstByteMetrics != null) {
+                firstByteMetrics.logError();
+            }
+            if (scenario.getMetrics() != null) {
+                scenario.getMetrics().logError();
+            }
+            Metrics stageMetrics = requestProfile == null ? null : requestProfile.getMetrics(requestTime);
+            if (stageMetrics != null) {
+                stageMetrics.logError();
+            }
+        } else {
+            long latency = System.nanoTime() - requestTime;
+            metrics.log(latency, bytesReceived, bytesSent);
+            if (firstByteMetrics != null) {
+                firstByteMetrics.log(firstByteTime - requestTime, 0, 0);
+            }
+            if (scenario.getMetrics() != null) {
+                scenario.getMetrics().log(latency, bytesReceived, bytesSent);
+            }
+
+            // tagged with the stage the request was due in
+            Metrics stageMetrics = requestProfile == null ? null : requestProfile.getMetrics(requestTime);
+            if (stageMetrics != null) {
+                stageMetrics.log(latency, bytesReceived, bytesSent);
+            }
+        }
+
+        // refill the stream that just closed (closed loop only)
+        boolean openLoop = requestProfile != null && requestProfile.isOpenLoop();
+        if (running && !openLoop && streams < targetStreams) {
+            this.send(System.nanoTime());
+        }
+    }
+
+    /**
+     * Stops all clients after a failure by closing vertx, which stops every 
+     * client verticle.
+     */
+    private void shutdown() {
+        if (running) {
+            running = false;
+            vertx.close();
+        }
+    }
+
+    /**
+     * One request and its response on the core engine. A single object 
+     * handles the request, the response head, every body chunk and the end, 
+     * and completes the request exactly once. Body chunks are counted and 
+     * dropped.
+     */
+    private class Exchange implements Handler<AsyncResult<HttpClientRequest>> {
+
+        private final Scenario scenario;
+        private final int record; // -1 without a feeder
+        private final Buffer body; // null without body
+        private final long requestTime;
+        private final LoadProfile requestProfile;
+        private int statusCode;
+        private long firstByteTime;
+        private long bytesReceived = 0;
+        private boolean completed = false;
+
+        private Exchange(Scenario scenario, int record, Buffer body, long requestTime, 
+                LoadProfile requestProfile) {
+            this.scenario = scenario;
+            this.record = record;
+            this.body = body;
+            this.requestTime = requestTime;
+            this.requestProfile = requestProfile;
+        }
+
+        @Override
+        public void handle(AsyncResult<HttpClientRequest> result) {
+            if (result.failed()) {
+                this.complete(result.cause());
+                return;
+            }
+            
+            HttpClientRequest request = result.result();
+            if (record >= 0) {
+                // the request has its own copy of the scenario headers
+                feeder.putHeaders(record, request.headers());
+            }
+            request.exceptionHandler(this::complete);
+            request.response(this::received);
+            if (body == null) {
+                request.end();
+            } else {
+                request.end(body);
+            }
+        }
+
+        private void received(AsyncResult<HttpClientResponse> result) {
+            if (result.failed()) {
+                this.complete(result.cause());
+                return;
+            }
+            
+            firstByteTime = System.nanoTime();
+            HttpClientResponse response = result.result();
+            statusCode = response.statusCode();
+            response.exceptionHandler(this::complete);
+            response.handler(chunk -> bytesReceived += chunk.length());
+            response.endHandler(end -> this.complete(null));
+        }
+
+        private void complete(Throwable failure) {
+            if (!completed) {
+                completed = true;
+                Client.this.complete(scenario, requestTime, requestProfile, failure, statusCode, 
+                        firstByteTime, bytesReceived, body == null ? 0 : body.length());
+            }
         }
     }
 
@@ -0,0 +1,115 @@
+/*
+ * ConnectionStats.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of one server connection. Created once when the connection is
+ * accepted and kept by its verticle in an identity map, so a request costs
+ * one map lookup by its connection and a counter increment. The public api
+ * of vertx has no way to attach state to a connection, and the lookup is
+ * the price of not reaching into its internals. A connection is served by
+ * one event loop, which is the only thread that writes these counters.
+ *
+ * Every opened stream is closed exactly once, when its response is sent, or
+ * when it is reset or its connection closes first. A closed connection has
+ * no open streams.
+ */
+public class ConnectionStats {
+
+    private final String remoteAddress;
+    private final long openTime = System.nanoTime();
+    private volatile long closeTime = 0;
+    private final AtomicLong transactions = new AtomicLong(0);
+    private final AtomicInteger streams = new AtomicInteger(0);
+    private final AtomicInteger peakStreams = new AtomicInteger(0);
+    private long reportedTransactions = 0; // reporter only
+    private long reportedTime = openTime; // reporter only
+
+    public ConnectionStats(String remoteAddress) {
+        this.remoteAddress = remoteAddress;
+    }
+
+    /**
+     * A request was received and its stream opened. Event loop only.
+     */
+    public void streamOpened() {
+        int open = streams.getPlain() + 1;
+        streams.setRelease(open);
+        if (open > peakStreams.getPlain()) {
+            peakStreams.setRelease(open);
+        }
+        transactions.setRelease(transactions.getPlain() + 1);
+    }
+
+    /**
+     * A response was sent, or its stream was reset or its connection closed
+     * before. Event loop only.
+     */
+    public void streamClosed() {
+        streams.setRelease(streams.getPlain() - 1);
+    }
+
+    public void close() {
+        closeTime = System.nanoTime();
+    }
+
+    public boolean isClosed() {
+        return closeTime != 0;
+    }
+
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public long getTransactions() {
+        return transactions.get();
+    }
+
+    /**
+     * @return open streams, zero once the connection is closed even if some
+     * of its requests are still being answered
+     */
+    public int getStreams() {
+        return closeTime != 0 ? 0 : streams.get();
+    }
+
+    public int getPeakStreams() {
+        return peakStreams.get();
+    }
+
+    /**
+     * @return how long the connection has been or was open
+     */
+    public long getLifetimeNanos() {
+        long end = closeTime;
+        return (end == 0 ? System.nanoTime() : end) - openTime;
+    }
+
+    /**
+     * Gets the transactions per second since the previous report and starts
+     * the next report interval. Reporter only.
+     *
+     * @return transactions per second since the previous report
+     */
+    long report() {
+        long now = closeTime == 0 ? System.nanoTime() : closeTime;
+        long total = transactions.get();
+        long elapsed = now - reportedTime;
+        long tps = elapsed > 0 ? ((total - reportedTransactions) * 1_000_000_000L) / elapsed : 0;
+        reportedTransactions = total;
+        reportedTime = now;
+        return tps;
+    }
+
+}
@@ -0,0 +1,306 @@
+/*
+ * Coordinator.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetServer;
+import io.vertx.core.net.NetServerOptions;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import titanium.vertx.load.tester.config.CoordinatorConfiguration;
+import titanium.vertx.load.tester.config.StageConfiguration;
+
+/**
+ * Runs the client load on several agent processes. Agents connect to the
+ * coordinator, and once all of them did every agent gets its share of the
+ * client configuration and a common start time. Agents report their totals
+ * every second, the coordinator mirrors them in one recorder per agent and
+ * merges those into one live view and a final report.
+ *
+ * The control channel carries one json object per line. Totals only grow,
+ * so a lost or late report is simply replaced by the next one.
+ *
+ * All state is confined to the event loop of this verticle.
+ */
+public class Coordinator extends AbstractVerticle {
+
+    private static final long FINAL_REPORT_TIMEOUT_MILLIS = 5_000;
+
+    private final CoordinatorConfiguration config;
+    private Metrics metrics;
+    private final List<AgentConnection> agents = new ArrayList<>();
+    private final Promise<Void> finished = Promise.promise();
+    private final CountDownLatch finishedLatch = new CountDownLatch(1);
+    private NetServer netServer;
+    private Context context;
+    private long startTime = 0; // nano time the agents start at
+    private boolean stopping = false;
+
+    public Coordinator(CoordinatorConfiguration config) {
+        this.config = config;
+    }
+
+    /**
+     * @return merged metrics of all agents, null until deployed
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return completes once the final report was printed
+     */
+    public Future<Void> finished() {
+        return finished.future();
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) throws Exception {
+
+        context = vertx.getOrCreateContext();
+        metrics = new Metrics(vertx, "Coordinator");
+
+        NetServerOptions options = new NetServerOptions()
+                .setHost(config.getHost())
+                .setPort(config.getPort());
+
+        vertx.createNetServer(options)
+                .connectHandler(this::connect)
+                .listen()
+                .onSuccess(server -> {
+                    netServer = server;
+                    System.out.printf("Coordinator waiting for [%s] agents on port [%s].\n",
+                            config.getAgents(), server.actualPort());
+                    startPromise.complete();
+                })
+                .onFailure(startPromise::fail);
+    }
+
+    /**
+     * Stops the agents from any thread and waits for their final reports,
+     * used when the coordinator process is shut down.
+     *
+     * @param timeoutMillis to wait at most
+     */
+    public void stopAndWait(long timeoutMillis) {
+        if (context != null) {
+            context.runOnContext(handler -> this.stopAgents());
+            try {
+                finishedLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void connect(NetSocket socket) {
+
+        AgentConnection agent = new AgentConnection(socket);
+
+        RecordParser.newDelimited("\n", socket).handler(line -> {
+            JsonObject message = new JsonObject(line);
+            switch (message.getString("type", "")) {
+                case "hello":
+                    this.hello(agent, message.getString("agent", socket.remoteAddress().toString()));
+                    break;
+                case "report":
+                    agent.recorder.set(message.getJsonObject("metrics"));
+                    break;
+                case "final":
+                    agent.recorder.set(message.getJsonObject("metrics"));
+                    agent.done = true;
+                    this.finishIfDone();
+                    break;
+                default:
+                    System.out.printf("Unknown message from agent [%s].\n", agent.name);
+            }
+        });
+
+        socket.closeHandler(handler -> {
+            if (!agent.done && agent.name != null) {
+                System.out.printf("Agent [%s] disconnected.\n", agent.name);
+            }
+            agent.done = true;
+            this.finishIfDone();
+        });
+    }
+
+    private void hello(AgentConnection agent, String name) {
+
+        if (agents.size() >= config.getAgents() || startTime != 0) {
+            System.out.printf("Agent [%s] rejected, all agents connected.\n", name);
+            this.send(agent, new JsonObject().put("type", "reject"));
+            agent.done = true;
+            agent.socket.close();
+            return;
+        }
+
+        agent.name = name;
+        agent.metrics = new Metrics(vertx, String.format("Agent [%s]", name));
+        agents.add(agent);
+        metrics.addRecorder(agent.recorder);
+        agent.metrics.addRecorder(agent.recorder);
+        System.out.printf("Agent [%s] connected, [%s] of [%s].\n", name, agents.size(), config.getAgents());
+
+        if (agents.size() == config.getAgents()) {
+            this.startAgents();
+        }
+    }
+
+    private void startAgents() {
+
+        // wall clock, so agents on other hosts start at the same time too
+        long startAt = System.currentTimeMillis() + config.getStartDelayMillis();
+        startTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getStartDelayMillis());
+
+        for (int i = 0; i < agents.size(); i++) {
+            this.send(agents.get(i), new JsonObject()
+                    .put("type", "start")
+                    .put("startAt", startAt)
+                    .put("client", shareOf(config.getClient(), i, agents.size())));
+        }
+
+        metrics.start();
+
+        // a profile with stages ends on its own, wait for its last responses
+        List<StageConfiguration> stages = config.getClientConfiguration().getStages();
+        if (!stages.isEmpty()) {
+            long durationSeconds = 0;
+            for (StageConfiguration stage : stages) {
+                durationSeconds = durationSeconds + stage.getDurationSeconds();
+            }
+            vertx.setTimer(config.getStartDelayMillis() + TimeUnit.SECONDS.toMillis(durationSeconds) + 2_000,
+                    handler -> this.stopAgents());
+        }
+    }
+
+    private void stopAgents() {
+
+        if (stopping) {
+            return;
+        }
+        stopping = true;
+
+        for (AgentConnection agent : agents) {
+            if (!agent.done) {
+                this.send(agent, new JsonObject().put("type", "stop"));
+            }
+        }
+
+        // agents that do not answer are reported with their last totals
+        vertx.setTimer(FINAL_REPORT_TIMEOUT_MILLIS, handler -> this.finish());
+        this.finishIfDone();
+    }
+
+    private void finishIfDone() {
+        if (!stopping || finished.future().isComplete()) {
+            return;
+        }
+        for (AgentConnection agent : agents) {
+            if (!agent.done) {
+                return;
+            }
+        }
+        this.finish();
+    }
+
+    private void finish() {
+
+        if (finished.future().isComplete()) {
+            return;
+        }
+
+        long durationNanos = startTime == 0 ? 0 : System.nanoTime() - startTime;
+        System.out.printf("Distributed test finished with [%s] agents.\n", agents.size());
+        metrics.printSummary(durationNanos);
+        for (AgentConnection agent : agents) {
+            agent.metrics.printSummary(durationNanos);
+        }
+
+        if (netServer != null) {
+            netServer.close();
+        }
+        finished.complete();
+        finishedLatch.countDown();
+    }
+
+    private void send(AgentConnection agent, JsonObject message) {
+        agent.socket.write(Buffer.buffer(message.encode()).appendString("\n"));
+    }
+
+    /**
+     * Splits the client load of one agent off the client configuration.
+     * Rates, concurrency and clients are split as evenly as possible, lower
+     * agent indexes get the remainder. Connections and streams are per
+     * client, so a closed loop is split with its clients. A results file
+     * gets the agent index appended, so agents on one host do not share it.
+     * Everything else is the same for every agent.
+     *
+     * @param client configuration of all agents
+     * @param agent index of the agent
+     * @param agentCount number of agents
+     * @return client configuration of the agent
+     */
+    static JsonObject shareOf(JsonObject client, int agent, int agentCount) {
+
+        JsonObject share = client.copy();
+
+        splitValue(share, "requestsPerSecond", agent, agentCount);
+        splitValue(share, "numberOfClients", agent, agentCount);
+        if (share.containsKey("resultsFile")) {
+            share.put("resultsFile", share.getString("resultsFile") + "." + agent);
+        }
+
+        JsonArray stages = share.getJsonArray("stages");
+        if (stages != null) {
+            for (int i = 0; i < stages.size(); i++) {
+                splitValue(stages.getJsonObject(i), "requestsPerSecond", agent, agentCount);
+                splitValue(stages.getJsonObject(i), "concurrency", agent, agentCount);
+            }
+        }
+
+        return share;
+    }
+
+    private static void splitValue(JsonObject json, String key, int agent, int agentCount) {
+        if (json.containsKey(key)) {
+            long total = json.getLong(key);
+            json.put(key, total / agentCount + (agent < total % agentCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * State of one agent on the control channel.
+     */
+    private class AgentConnection {
+
+        private final NetSocket socket;
+        private final Recorder recorder = new Recorder(); // mirrors the agent's totals
+        private String name = null;
+        private Metrics metrics = null;
+        private boolean done = false;
+
+        AgentConnection(NetSocket socket) {
+            this.socket = socket;
+        }
+    }
+
+}
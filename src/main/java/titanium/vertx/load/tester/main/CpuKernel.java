@@ -0,0 +1,207 @@
+/*
+ * CpuKernel.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import titanium.vertx.load.tester.config.WorkConfiguration;
+
+/**
+ * CPU work of a simulated service. Every iteration hashes the SHA-256 
+ * digest of the previous iteration, so no iteration can be skipped or 
+ * hoisted by the JIT, and the last digest is kept where the JIT cannot 
+ * prove it unused. Digests are computed in place, so the work allocates 
+ * nothing and measures hashing rather than the garbage collector.
+ * 
+ * Work given in microseconds is calibrated once at start up: the kernel 
+ * runs until it is compiled, then the iterations done in a fixed time are 
+ * counted. The calibration holds for an idle core, under load the same 
+ * iterations take longer, which is what makes the server saturate like a 
+ * real CPU bound service.
+ * 
+ * Thread safe. Platform threads hash with their own digest. Virtual threads 
+ * are created per request, so a thread local digest would be created for 
+ * every request, instead they take a digest from a pool with one per carrier 
+ * thread. A virtual thread is never unmounted while it hashes, so no more 
+ * digests are in use than there are carrier threads.
+ */
+public class CpuKernel {
+
+    private static final int DIGEST_LENGTH = 32;
+    private static final long WARMUP_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long CALIBRATION_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final int CALIBRATION_CHUNK = 1_000;
+
+    private static final ThreadLocal<State> STATES = ThreadLocal.withInitial(State::new);
+    private static final AtomicReferenceArray<State> CARRIER_STATES = new AtomicReferenceArray<>(
+            Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors()));
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    private final long iterations;
+
+    public CpuKernel(WorkConfiguration config) {
+        if (config.getIterations() > 0) {
+            this.iterations = config.getIterations();
+        } else {
+            double iterationsPerMicro = calibrate();
+            this.iterations = Math.max(1, Math.round(config.getMicros() * iterationsPerMicro));
+            System.out.printf("CPU work calibrated to [%s] iterations per request, [%.1f] iterations per microsecond.\n",
+                    iterations, iterationsPerMicro);
+        }
+    }
+
+    /**
+     * @return hashing iterations run per request
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Runs the work of one request on the calling thread.
+     * 
+     * @param seed varies the input of every request, like the nano time it 
+     * was received
+     */
+    public void run(long seed) {
+        run(seed, iterations);
+    }
+
+    /**
+     * @return first eight bytes of the last digest of the calling platform 
+     * thread
+     */
+    long lastDigest() {
+        return STATES.get().sink;
+    }
+
+    private static void run(long seed, long iterations) {
+        boolean virtual = isVirtual();
+        State state = virtual ? acquire() : STATES.get();
+        try {
+            byte[] block = state.block;
+            for (int i = 0; i < 8; i++) {
+                block[i] = (byte) (seed >>> (i * 8));
+            }
+            Arrays.fill(block, 8, DIGEST_LENGTH, (byte) 0);
+
+            for (long i = 0; i < iterations; i++) {
+                state.digest.update(block, 0, DIGEST_LENGTH);
+                state.digest.digest(block, 0, DIGEST_LENGTH);
+            }
+
+            long digest = 0;
+            for (int i = 0; i < 8; i++) {
+                digest = (digest << 8) | (block[i] & 0xff);
+            }
+            state.sink = digest;
+        } catch (DigestException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            // a failed run must not take the digest of its carrier with it
+            if (virtual) {
+                release(state);
+            }
+        }
+    }
+
+    /**
+     * @return digest of an idle carrier, or a new one if all are in use
+     */
+    private static State acquire() {
+        for (int i = 0; i < CARRIER_STATES.length(); i++) {
+            State state = CARRIER_STATES.getAndSet(i, null);
+            if (state != null) {
+                return state;
+            }
+        }
+        return new State();
+    }
+
+    private static void release(State state) {
+        for (int i = 0; i < CARRIER_STATES.length(); i++) {
+            if (CARRIER_STATES.compareAndSet(i, null, state)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isVirtual() {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(Thread.currentThread());
+        } catch (Throwable th) {
+            throw new IllegalStateException(th);
+        }
+    }
+
+    /**
+     * Looks up Thread.isVirtual, which only exists on Java 21 and later, 
+     * like the virtual thread executor of the server.
+     * 
+     * @return handle of Thread.isVirtual, or null if there are no virtual 
+     * threads
+     */
+    private static MethodHandle isVirtualHandle() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", 
+                    MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return iterations per microsecond of the compiled kernel
+     */
+    private static double calibrate() {
+        long end = System.nanoTime() + WARMUP_NANOS;
+        long seed = 0;
+        while (System.nanoTime() < end) {
+            run(seed++, CALIBRATION_CHUNK);
+        }
+        
+        long start = System.nanoTime();
+        long now = start;
+        long done = 0;
+        while (now - start < CALIBRATION_NANOS) {
+            run(seed++, CALIBRATION_CHUNK);
+            done += CALIBRATION_CHUNK;
+            now = System.nanoTime();
+        }
+        return done * 1_000.0 / (now - start);
+    }
+
+    private static class State {
+
+        private final MessageDigest digest;
+        private final byte[] block = new byte[DIGEST_LENGTH];
+        private long sink; // last digest, keeps the work observable
+
+        private State() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Delay.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.impl.ContextInternal;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import titanium.vertx.load.tester.config.DelayConfiguration;
+
+/**
+ * Draws the simulated service latency of every response from the configured
+ * distribution. Normal delays below zero are cut off at zero. Log-normal
+ * delays are parameterized by the mean and standard deviation of the delay
+ * itself rather than of its logarithm. Empirical delays are interpolated
+ * linearly between the configured percentiles, below the first percentile
+ * its delay is used and above the last percentile the delay of the last.
+ *
+ * Immutable, so verticles draw delays from any event loop, each with its own
+ * thread local random.
+ */
+public class Delay {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final DelayConfiguration config;
+    private final double mu; // log-normal only
+    private final double sigma; // log-normal only
+
+    public Delay(DelayConfiguration config) {
+        this.config = config;
+
+        if (config.getDistribution() == DelayConfiguration.Distribution.LOGNORMAL) {
+            double variance = Math.log(1 + Math.pow(config.getStdDevMillis() / config.getMeanMillis(), 2));
+            this.sigma = Math.sqrt(variance);
+            this.mu = Math.log(config.getMeanMillis()) - variance / 2;
+        } else {
+            this.sigma = 0;
+            this.mu = 0;
+        }
+    }
+
+    /**
+     * @return delay of the next response
+     */
+    public long nextNanos() {
+        return this.nextNanos(ThreadLocalRandom.current());
+    }
+
+    /**
+     * @param random to draw the delay with
+     * @return delay of the next response
+     */
+    public long nextNanos(Random random) {
+        double millis;
+        switch (config.getDistribution()) {
+            case UNIFORM:
+                millis = config.getMinMillis()
+                        + random.nextDouble() * (config.getMaxMillis() - config.getMinMillis());
+                break;
+            case NORMAL:
+                millis = Math.max(0, config.getMeanMillis()
+                        + random.nextGaussian() * config.getStdDevMillis());
+                break;
+            case LOGNORMAL:
+                millis = Math.exp(mu + random.nextGaussian() * sigma);
+                break;
+            case EMPIRICAL:
+                millis = this.percentileMillis(random.nextDouble() * 100);
+                break;
+            default:
+                millis = config.getMillis();
+                break;
+        }
+        return Math.round(millis * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Runs a handler on a context after the next delay. Vertx timers only 
+     * resolve milliseconds and would round every sub millisecond delay up, 
+     * so the delay is scheduled in nanos on the netty event loop of the 
+     * context and the handler is then emitted on the context like a timer 
+     * handler. That is internal vertx api, a context that does not implement 
+     * it falls back to a vertx timer with the delay rounded up to the next 
+     * millisecond.
+     *
+     * @param context to run the handler on, of an event loop, must be the 
+     * current context
+     * @param handler to run once the delay has passed
+     */
+    public void schedule(Context context, Handler<Void> handler) {
+        long nanos = this.nextNanos();
+        if (context instanceof ContextInternal) {
+            ContextInternal internal = (ContextInternal) context;
+            internal.nettyEventLoop().schedule(() -> internal.emit(handler), nanos, TimeUnit.NANOSECONDS);
+        } else {
+            // timers run on the context that sets them and need at least a milli
+            long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos + 999_999));
+            context.owner().setTimer(millis, id -> handler.handle(null));
+        }
+    }
+
+    private double percentileMillis(double percentile) {
+        double[] percentiles = config.getPercentiles();
+        double[] millis = config.getPercentileMillis();
+
+        if (percentile <= percentiles[0]) {
+            return millis[0];
+        }
+        for (int i = 1; i < percentiles.length; i++) {
+            if (percentile <= percentiles[i]) {
+                double fraction = (percentile - percentiles[i - 1]) / (percentiles[i] - percentiles[i - 1]);
+                return millis[i - 1] + fraction * (millis[i] - millis[i - 1]);
+            }
+        }
+        return millis[millis.length - 1];
+    }
+
+}
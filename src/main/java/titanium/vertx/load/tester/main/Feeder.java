@@ -0,0 +1,469 @@
+/*
+ * Feeder.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import titanium.vertx.load.tester.config.FeederConfiguration;
+
+/**
+ * Feeds requests from a corpus of paths, headers and bodies. The corpus file
+ * is memory mapped and indexed once when the feeder is loaded, afterwards
+ * clients only pick record numbers and nothing is parsed or copied.
+ *
+ * Bodies that appear verbatim in the file (csv fields without escaped
+ * quotes) are slices of the mapped file. Other bodies are decoded once into
+ * an off heap arena. Paths are decoded once since vertx needs them as
+ * strings. Headers are only kept for records that have any, as names and
+ * values encoded once, with one name instance per column or key. A request
+ * starts from the headers of its scenario and only the few names of its
+ * record are replaced, so no record has a map of its own.
+ */
+public class Feeder {
+
+    private final FeederConfiguration config;
+    private final ByteBuf file;
+    private final ByteBuf arena;
+    private final int size;
+    private final String[] paths;
+    private final CharSequence[][] headers; // names and values alternating, null if none
+    private final int[] bodyOffsets; // negative offsets point into the arena
+    private final int[] bodyLengths; // -1 if the record has no body
+
+    /**
+     * Loads and indexes a corpus file.
+     *
+     * @param config of the feeder
+     */
+    public Feeder(FeederConfiguration config) {
+
+        this.config = config;
+        this.file = BodySource.mapFile(config.getFile());
+        ByteBuf bodies = Unpooled.directBuffer();
+
+        // count lines first so the index is allocated once
+        int lines = 0;
+        int length = file.readableBytes();
+        for (int i = 0; i < length; i++) {
+            if (file.getByte(i) == '\n') {
+                lines++;
+            }
+        }
+        if (length > 0 && file.getByte(length - 1) != '\n') {
+            lines++;
+        }
+
+        String[] recordPaths = new String[lines];
+        CharSequence[][] recordHeaders = new CharSequence[lines][];
+        int[] recordBodyOffsets = new int[lines];
+        int[] recordBodyLengths = new int[lines];
+        Index index = new Index(recordPaths, recordHeaders, recordBodyOffsets, recordBodyLengths, bodies);
+
+        if (config.getFormat() == FeederConfiguration.Format.CSV) {
+            this.indexCsv(index);
+        } else {
+            this.indexJsonl(index);
+        }
+
+        if (index.records == 0) {
+            throw new IllegalArgumentException(String.format("Feeder file [%s] has no records.", config.getFile()));
+        }
+
+        this.size = index.records;
+        this.paths = recordPaths;
+        this.headers = recordHeaders;
+        this.bodyOffsets = recordBodyOffsets;
+        this.bodyLengths = recordBodyLengths;
+        this.arena = Unpooled.unreleasableBuffer(bodies);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param record number
+     * @return path of the record, or null if it has none
+     */
+    public String getPath(int record) {
+        return paths[record];
+    }
+
+    /**
+     * Puts the headers of a record on the headers of a request. Headers of
+     * the record replace headers of the same name, all others are kept.
+     *
+     * @param record number
+     * @param target headers of the request
+     */
+    public void putHeaders(int record, MultiMap target) {
+        CharSequence[] recordHeaders = headers[record];
+        if (recordHeaders == null) {
+            return;
+        }
+        for (int i = 0; i < recordHeaders.length; i = i + 2) {
+            target.remove(recordHeaders[i]);
+        }
+        for (int i = 0; i < recordHeaders.length; i = i + 2) {
+            target.add(recordHeaders[i], recordHeaders[i + 1]);
+        }
+    }
+
+    /**
+     * Undoes {@link #putHeaders(int, MultiMap)}, so a reused request can take
+     * the headers of the next record. Only the names of the record are
+     * touched.
+     *
+     * @param record number whose headers were put
+     * @param target headers of the request
+     * @param defaults headers the request had before, usually of a scenario
+     */
+    public void restoreHeaders(int record, MultiMap target, MultiMap defaults) {
+        CharSequence[] recordHeaders = headers[record];
+        if (recordHeaders == null) {
+            return;
+        }
+        for (int i = 0; i < recordHeaders.length; i = i + 2) {
+            target.remove(recordHeaders[i]);
+        }
+        for (int i = 0; i < recordHeaders.length; i = i + 2) {
+            if (defaults.contains(recordHeaders[i]) && !target.contains(recordHeaders[i])) {
+                target.add(recordHeaders[i].toString(), defaults.getAll(recordHeaders[i]));
+            }
+        }
+    }
+
+    /**
+     * The bytes are not copied, but every call allocates a slice and the
+     * buffer wrapping it, since a request may still be writing the previous
+     * view when the record is picked again.
+     *
+     * @param record number
+     * @return view of the body of the record, or null if it has none
+     */
+    public Buffer getBody(int record) {
+        int bodyLength = bodyLengths[record];
+        if (bodyLength < 0) {
+            return null;
+        }
+        int offset = bodyOffsets[record];
+        if (offset >= 0) {
+            return BodySource.wrap(file.slice(offset, bodyLength));
+        } else {
+            return BodySource.wrap(arena.slice(-(offset + 1), bodyLength));
+        }
+    }
+
+    /**
+     * Creates the cursor of one client. Cursors are not thread safe, each
+     * client iterates its own.
+     *
+     * @param client index of the client, starting at zero
+     * @param numberOfClients all clients
+     * @return cursor that picks the records of the client
+     */
+    public Cursor cursor(int client, int numberOfClients) {
+        return new Cursor(config.getOrder(), size, client, numberOfClients);
+    }
+
+    /**
+     * Picks record numbers for one client, without allocating.
+     */
+    public static class Cursor {
+
+        private final FeederConfiguration.Order order;
+        private final int size;
+        private final int first;
+        private final int last;
+        private final int stride;
+        private final SplittableRandom random;
+        private int position;
+
+        Cursor(FeederConfiguration.Order order, int size, int client, int numberOfClients) {
+
+            this.order = order;
+            this.size = size;
+            this.random = new SplittableRandom(System.nanoTime() + client);
+
+            if (order == FeederConfiguration.Order.PARTITIONED) {
+                // every client owns at least one record
+                this.first = Math.min((int) (((long) client * size) / numberOfClients), size - 1);
+                this.last = Math.max(first, (int) ((((long) client + 1) * size) / numberOfClients) - 1);
+                this.stride = 1;
+            } else {
+                // sequential clients take turns, client n sends n, n + clients, ...
+                this.first = client % size;
+                this.last = size - 1;
+                this.stride = numberOfClients;
+            }
+
+            this.position = first;
+        }
+
+        public int next() {
+
+            if (order == FeederConfiguration.Order.RANDOM) {
+                return random.nextInt(size);
+            }
+
+            int record = position;
+            position = position + stride;
+            if (position > last) {
+                position = first;
+            }
+            return record;
+        }
+    }
+
+    /**
+     * Index being built while loading.
+     */
+    private static class Index {
+
+        private final String[] paths;
+        private final CharSequence[][] headers;
+        private final int[] bodyOffsets;
+        private final int[] bodyLengths;
+        private final ByteBuf arena;
+        private final Map<String, CharSequence> names = new HashMap<>();
+        private int records = 0;
+
+        Index(String[] paths, CharSequence[][] headers, int[] bodyOffsets, int[] bodyLengths, ByteBuf arena) {
+            this.paths = paths;
+            this.headers = headers;
+            this.bodyOffsets = bodyOffsets;
+            this.bodyLengths = bodyLengths;
+            this.arena = arena;
+        }
+
+        void add(String path, List<String> recordHeaders) {
+            paths[records] = path;
+            if (recordHeaders != null && !recordHeaders.isEmpty()) {
+                // names repeat on every record, values rarely do
+                CharSequence[] encoded = new CharSequence[recordHeaders.size()];
+                for (int i = 0; i < encoded.length; i = i + 2) {
+                    encoded[i] = names.computeIfAbsent(recordHeaders.get(i), HttpHeaders::createOptimized);
+                    encoded[i + 1] = HttpHeaders.createOptimized(recordHeaders.get(i + 1));
+                }
+                headers[records] = encoded;
+            }
+            bodyOffsets[records] = 0;
+            bodyLengths[records] = -1;
+            records++;
+        }
+
+        void setFileBody(int offset, int length) {
+            bodyOffsets[records - 1] = offset;
+            bodyLengths[records - 1] = length;
+        }
+
+        void setArenaBody(byte[] body) {
+            bodyOffsets[records - 1] = -(arena.writerIndex() + 1);
+            bodyLengths[records - 1] = body.length;
+            arena.writeBytes(body);
+        }
+    }
+
+    private void indexJsonl(Index index) {
+
+        int length = file.readableBytes();
+        int lineStart = 0;
+
+        while (lineStart < length) {
+
+            int lineEnd = this.lineEnd(lineStart, length);
+            String line = file.toString(lineStart, lineEnd - lineStart, StandardCharsets.UTF_8).trim();
+            lineStart = this.nextLine(lineEnd, length);
+
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            JsonObject record = new JsonObject(line);
+
+            List<String> recordHeaders = null;
+            JsonObject headerObject = record.getJsonObject("headers");
+            if (headerObject != null) {
+                recordHeaders = new ArrayList<>();
+                for (Map.Entry<String, Object> header : headerObject) {
+                    recordHeaders.add(header.getKey());
+                    recordHeaders.add(String.valueOf(header.getValue()));
+                }
+            }
+
+            index.add(record.getString("path"), recordHeaders);
+
+            Object body = record.getValue("body");
+            if (body instanceof String) {
+                index.setArenaBody(((String) body).getBytes(StandardCharsets.UTF_8));
+            } else if (body instanceof JsonObject) {
+                index.setArenaBody(((JsonObject) body).toBuffer().getBytes());
+            } else if (body instanceof JsonArray) {
+                index.setArenaBody(((JsonArray) body).toBuffer().getBytes());
+            }
+        }
+    }
+
+    private void indexCsv(Index index) {
+
+        int length = file.readableBytes();
+        int lineStart = 0;
+        String[] columns = null;
+        int[] fieldStarts = new int[0];
+        int[] fieldEnds = new int[0];
+        boolean[] fieldEscaped = new boolean[0];
+
+        while (lineStart < length) {
+
+            int lineEnd = this.lineEnd(lineStart, length);
+            int currentLine = lineStart;
+            lineStart = this.nextLine(lineEnd, length);
+
+            if (lineEnd == currentLine) {
+                continue;
+            }
+
+            if (columns == null) {
+                // header row names the columns
+                columns = file.toString(currentLine, lineEnd - currentLine, StandardCharsets.UTF_8).split(",", -1);
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = columns[i].trim();
+                }
+                fieldStarts = new int[columns.length];
+                fieldEnds = new int[columns.length];
+                fieldEscaped = new boolean[columns.length];
+                continue;
+            }
+
+            int fields = this.parseCsvLine(currentLine, lineEnd, fieldStarts, fieldEnds, fieldEscaped);
+
+            String path = null;
+            List<String> recordHeaders = null;
+            int body = -1;
+
+            for (int i = 0; i < fields; i++) {
+                if (columns[i].equals("path")) {
+                    path = this.csvString(fieldStarts[i], fieldEnds[i], fieldEscaped[i]);
+                } else if (columns[i].equals("body")) {
+                    body = i;
+                } else if (fieldEnds[i] > fieldStarts[i]) {
+                    if (recordHeaders == null) {
+                        recordHeaders = new ArrayList<>();
+                    }
+                    recordHeaders.add(columns[i]);
+                    recordHeaders.add(this.csvString(fieldStarts[i], fieldEnds[i], fieldEscaped[i]));
+                }
+            }
+
+            index.add(path, recordHeaders);
+
+            if (body >= 0) {
+                if (fieldEscaped[body]) {
+                    index.setArenaBody(this.csvString(fieldStarts[body], fieldEnds[body], true)
+                            .getBytes(StandardCharsets.UTF_8));
+                } else {
+                    index.setFileBody(fieldStarts[body], fieldEnds[body] - fieldStarts[body]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses one csv line into field offsets. Quoted fields may contain
+     * commas and doubled quotes, but not line breaks.
+     */
+    private int parseCsvLine(int lineStart, int lineEnd, int[] starts, int[] ends, boolean[] escaped) {
+
+        int position = lineStart;
+        int field = 0;
+
+        while (field < starts.length) {
+
+            boolean fieldEscaped = false;
+            int start;
+            int end;
+
+            if (position < lineEnd && file.getByte(position) == '"') {
+                start = ++position;
+                while (position < lineEnd) {
+                    if (file.getByte(position) == '"') {
+                        if (position + 1 < lineEnd && file.getByte(position + 1) == '"') {
+                            fieldEscaped = true;
+                            position = position + 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    position++;
+                }
+                end = position;
+                // skip closing quote
+                position = Math.min(position + 1, lineEnd);
+            } else {
+                start = position;
+                while (position < lineEnd && file.getByte(position) != ',') {
+                    position++;
+                }
+                end = position;
+            }
+
+            starts[field] = start;
+            ends[field] = end;
+            escaped[field] = fieldEscaped;
+            field++;
+
+            if (position < lineEnd && file.getByte(position) == ',') {
+                position++;
+            } else {
+                break;
+            }
+        }
+
+        return field;
+    }
+
+    private String csvString(int start, int end, boolean escaped) {
+        String value = file.toString(start, end - start, StandardCharsets.UTF_8);
+        return escaped ? value.replace("\"\"", "\"") : value;
+    }
+
+    private int lineEnd(int lineStart, int length) {
+        int end = lineStart;
+        while (end < length && file.getByte(end) != '\n') {
+            end++;
+        }
+        // ignore carriage return of windows line endings
+        if (end > lineStart && file.getByte(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    private int nextLine(int lineEnd, int length) {
+        int next = lineEnd;
+        while (next < length && file.getByte(next) != '\n') {
+            next++;
+        }
+        return next + 1;
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Histogram.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size, log bucketed histogram of non-negative long values such as
+ * latency nanos. Each power of two range is split into 128 linear sub
+ * buckets, so any recorded value is reported within 1% of its real value.
+ * The histogram covers every long value in 7,296 buckets (57KB) and never
+ * allocates after it is created.
+ *
+ * Only one thread may record to a histogram. Recording is a plain increment
+ * published with a release store, so there is no lock or atomic instruction
+ * on the hot path, while other threads still read every bucket consistently.
+ * Merging and reading percentiles is meant for a single reporting thread.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_BITS = SUB_BUCKET_BITS - 1;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    static final int BUCKET_COUNT = ((63 - SUB_BUCKET_BITS) << SUB_BUCKET_HALF_BITS) + SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Records one value. Negative values are recorded as zero. Must always be
+     * called by the same thread.
+     *
+     * @param value to record
+     */
+    public void record(long value) {
+        int index = index(value);
+        counts.setRelease(index, counts.getPlain(index) + 1);
+    }
+
+    /**
+     * Adds all counts of the other histogram to this histogram.
+     *
+     * @param other histogram to add
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.setRelease(i, counts.getPlain(i) + count);
+            }
+        }
+    }
+
+    /**
+     * Sets this histogram to the counts of the minuend minus the counts of
+     * the subtrahend. Used to get the last interval out of two cumulative
+     * histograms.
+     *
+     * @param minuend histogram with the newer counts
+     * @param subtrahend histogram with the older counts
+     */
+    public void setToDifference(Histogram minuend, Histogram subtrahend) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.setRelease(i, minuend.counts.get(i) - subtrahend.counts.get(i));
+        }
+    }
+
+    long getCount(int index) {
+        return counts.get(index);
+    }
+
+    /**
+     * Sets the count of one bucket. Only for histograms that are copies of
+     * another process' histogram, must always be called by the same thread.
+     *
+     * @param index of the bucket
+     * @param count of the bucket
+     */
+    void setCount(int index, long count) {
+        counts.setRelease(index, count);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total = total + counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Counts the recorded values up to a value, including the whole bucket 
+     * the value falls in.
+     *
+     * @param value upper bound
+     * @return number of values recorded at or below the value, within the 
+     * precision of the buckets
+     */
+    public long getCountAtOrBelow(long value) {
+        int last = Math.min(index(value), BUCKET_COUNT - 1);
+        long count = 0;
+        for (int i = 0; i <= last; i++) {
+            count = count + counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the value at or below which the given percentage of recorded
+     * values fall.
+     *
+     * @param percentile between 0 and 100
+     * @return highest value equivalent to the bucket the percentile falls in,
+     * or zero if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        long total = getTotalCount();
+        if (total == 0) {
+            return 0;
+        }
+
+        // rank of the value we are looking for, at least the first value
+        long rank = Math.max(1, (long) Math.ceil((Math.min(percentile, 100.0) / 100.0) * total));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen = seen + counts.get(i);
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+
+        return getMaxValue();
+    }
+
+    /**
+     * @return highest value equivalent to the largest recorded value, or zero
+     * if nothing has been recorded
+     */
+    public long getMaxValue() {
+        for (int i = BUCKET_COUNT - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return 0;
+    }
+
+    static int index(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK)) - SUB_BUCKET_HALF_BITS;
+        return (shift << SUB_BUCKET_HALF_BITS) + (int) (value >>> shift);
+    }
+
+    static long lowestEquivalentValue(int index) {
+        int shift = Math.max(0, (index >>> SUB_BUCKET_HALF_BITS) - 1);
+        long subBucket = index - (shift << SUB_BUCKET_HALF_BITS);
+        return subBucket << shift;
+    }
+
+    static long highestEquivalentValue(int index) {
+        int shift = Math.max(0, (index >>> SUB_BUCKET_HALF_BITS) - 1);
+        return lowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * LoadProfile.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import titanium.vertx.load.tester.config.ClientConfiguration;
+import titanium.vertx.load.tester.config.StageConfiguration;
+
+/**
+ * The load to offer over time, shared by all clients. Every stage ramps
+ * linearly from the target of the previous stage to its own target and then
+ * holds it, the first stage ramps up from zero.
+ *
+ * For a request rate the profile answers when the n-th request of the whole
+ * run is due, so clients derive intended send times from one timeline
+ * instead of each keeping their own. For a concurrency it answers how many
+ * streams a client should keep open at a given time.
+ *
+ * Immutable, so clients read it from any event loop.
+ */
+public class LoadProfile {
+
+    private final StageConfiguration[] stages;
+    private final Metrics[] stageMetrics; // null when there are no stages
+    private final boolean openLoop;
+    private final long startTime;
+    private final long[] stageStarts; // nanos since start
+    private final long[] stageEnds; // nanos since start
+    private final double[] stageCounts; // requests due by the end of each stage
+
+    /**
+     * Creates the profile of a client configuration.
+     *
+     * @param config of the clients
+     * @param metrics creates the metrics of each stage
+     * @param startTime nano time the first stage starts at
+     * @return profile, or null for a closed loop without stages
+     */
+    public static LoadProfile create(ClientConfiguration config, Metrics metrics, long startTime) {
+        if (!config.getStages().isEmpty()) {
+            return new LoadProfile(config.getStages(), metrics, startTime);
+        } else if (config.getRequestsPerSecond() > 0) {
+            // a constant rate is a single stage that never ends
+            StageConfiguration constant = new StageConfiguration("constant",
+                    Long.MAX_VALUE, 0, config.getRequestsPerSecond(), -1);
+            return new LoadProfile(Collections.singletonList(constant), null, startTime);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @param stages to run one after the other
+     * @param metrics creates the metrics of each stage, or null to not track
+     * stages separately
+     * @param startTime nano time the first stage starts at
+     */
+    public LoadProfile(List<StageConfiguration> stages, Metrics metrics, long startTime) {
+
+        this.stages = stages.toArray(new StageConfiguration[0]);
+        this.openLoop = this.stages[0].isOpenLoop();
+        this.startTime = startTime;
+        this.stageStarts = new long[this.stages.length];
+        this.stageEnds = new long[this.stages.length];
+        this.stageCounts = new double[this.stages.length];
+        this.stageMetrics = metrics == null ? null : new Metrics[this.stages.length];
+
+        long end = 0;
+        double count = 0;
+        for (int i = 0; i < this.stages.length; i++) {
+
+            // durations saturate instead of overflowing, so a stage of
+            // Long.MAX_VALUE seconds simply never ends
+            stageStarts[i] = end;
+            end = end + Math.min(TimeUnit.SECONDS.toNanos(this.stages[i].getDurationSeconds()),
+                    Long.MAX_VALUE - end);
+            stageEnds[i] = end;
+
+            // ramp is a trapezoid, hold is a rectangle
+            double from = this.targetOf(i - 1);
+            double to = this.targetOf(i);
+            double ramp = this.stages[i].getRampSeconds();
+            double hold = this.stages[i].getDurationSeconds() - ramp;
+            count = count + (from + to) / 2.0 * ramp + to * hold;
+            stageCounts[i] = count;
+
+            if (metrics != null) {
+                stageMetrics[i] = metrics.createStage(this.stages[i].getName());
+            }
+        }
+    }
+
+    public boolean isOpenLoop() {
+        return openLoop;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public int getStageCount() {
+        return stages.length;
+    }
+
+    public StageConfiguration getStage(int stage) {
+        return stages[stage];
+    }
+
+    /**
+     * @param stage index
+     * @return nano time the stage starts at
+     */
+    public long getStageStartTime(int stage) {
+        return startTime + stageStarts[stage];
+    }
+
+    /**
+     * @param stage index
+     * @return nano time the stage ends at
+     */
+    public long getStageEndTime(int stage) {
+        return startTime + stageEnds[stage];
+    }
+
+    /**
+     * @param time nano time
+     * @return index of the stage running at the time, -1 before the first
+     * stage or after the last one
+     */
+    public int stageAt(long time) {
+        long elapsed = time - startTime;
+        if (elapsed < 0) {
+            return -1;
+        }
+        for (int i = 0; i < stages.length; i++) {
+            if (elapsed < stageEnds[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param time nano time
+     * @return true once the last stage ended
+     */
+    public boolean isFinished(long time) {
+        return time - startTime >= stageEnds[stageEnds.length - 1];
+    }
+
+    /**
+     * @param time nano time the request was sent or due
+     * @return metrics of the stage running at the time, or null if stages
+     * are not tracked or no stage was running
+     */
+    public Metrics getMetrics(long time) {
+        if (stageMetrics == null) {
+            return null;
+        }
+        int stage = this.stageAt(time);
+        return stage < 0 ? null : stageMetrics[stage];
+    }
+
+    /**
+     * @param stage index
+     * @return metrics of the stage, or null if stages are not tracked
+     */
+    public Metrics getStageMetrics(int stage) {
+        return stageMetrics == null ? null : stageMetrics[stage];
+    }
+
+    /**
+     * Target of all clients combined at a time, requests per second or
+     * concurrent requests depending on the stages.
+     *
+     * @param time nano time
+     * @return target, zero before the first stage and after the last one
+     */
+    public double targetAt(long time) {
+        int stage = this.stageAt(time);
+        if (stage < 0) {
+            return 0;
+        }
+        double elapsed = (time - startTime - stageStarts[stage]) / 1_000_000_000.0;
+        double ramp = stages[stage].getRampSeconds();
+        double to = this.targetOf(stage);
+        if (elapsed >= ramp) {
+            return to;
+        }
+        double from = this.targetOf(stage - 1);
+        return from + (to - from) * elapsed / ramp;
+    }
+
+    /**
+     * Number of streams one client keeps open at a time. The target is split
+     * as evenly as possible, lower client indexes get the remainder.
+     *
+     * @param time nano time
+     * @param client index of the client
+     * @param numberOfClients all clients
+     * @return concurrent requests of the client
+     */
+    public int getConcurrency(long time, int client, int numberOfClients) {
+        long total = Math.round(this.targetAt(time));
+        return (int) ((total + numberOfClients - 1 - client) / numberOfClients);
+    }
+
+    /**
+     * Time the count-th request of the whole run is due, counting from zero.
+     * Inverts the number of requests due over time, which is quadratic
+     * during a ramp and linear while a target is held.
+     *
+     * @param count of the request
+     * @return nano time the request is due, or Long.MAX_VALUE if it is not
+     * due before the last stage ends
+     */
+    public long timeOf(long count) {
+
+        for (int i = 0; i < stages.length; i++) {
+            if (count < stageCounts[i]) {
+
+                double local = count - (i == 0 ? 0 : stageCounts[i - 1]);
+                double from = this.targetOf(i - 1);
+                double to = this.targetOf(i);
+                double ramp = stages[i].getRampSeconds();
+                double rampCount = (from + to) / 2.0 * ramp;
+                double seconds;
+
+                if (local <= 0) {
+                    seconds = 0;
+                } else if (local < rampCount) {
+                    // solve from * x + (to - from) / (2 * ramp) * x^2 = local,
+                    // in a form that also holds for a flat or falling ramp
+                    double a = (to - from) / (2.0 * ramp);
+                    seconds = 2.0 * local / (from + Math.sqrt(from * from + 4.0 * a * local));
+                } else {
+                    seconds = ramp + (local - rampCount) / to;
+                }
+
+                return startTime + stageStarts[i] + (long) (seconds * 1_000_000_000.0);
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    private double targetOf(int stage) {
+        if (stage < 0) {
+            return 0;
+        }
+        return openLoop ? stages[stage].getRequestsPerSecond() : stages[stage].getConcurrency();
+    }
+
+}
@@ -11,14 +11,23 @@
 package titanium.vertx.load.tester.main;
 
 import io.vertx.core.Vertx;
-import java.util.Map;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Tracks average latency, average tps, and total transactions. Note that 
- * averages are based on the past sixty seconds.
+ * averages are based on the past sixty seconds. Latency percentiles are 
+ * tracked for every one second interval and for the whole run.
+ * 
+ * Every thread that logs a transaction gets its own recorder, so event loops 
+ * never share a cache line on the hot path. The one second reporter merges 
+ * all recorders and derives the last second from the previous merge.
+ * 
+ * Metrics of a part of the load, like one scenario of a mix, are tracked by 
+ * child metrics that are reported by the timer of their parent.
  */
 public class Metrics {
     
@@ -26,35 +35,78 @@ public class Metrics {
     private long timerId1Second = -1;
     private long timerId15Seconds = -1;
     private final boolean client;
-    private long maxTps = 0;
-    private final AtomicInteger bucketIndex = new AtomicInteger(0);
+    private final String name;
+    private final List<Metrics> children = new CopyOnWriteArrayList<>();
+    private volatile String stage = null;
+    private volatile long maxTps = 0;
+    private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(() -> {
+        Recorder threadRecorder = new Recorder();
+        recorders.add(threadRecorder);
+        return threadRecorder;
+    });
     
-    // client and server metrics
-    private final AtomicInteger[] tpsBuckets = new AtomicInteger[61];
-    private long averageTps = 0; // for the last 60 seconds
-    private final AtomicLong[] latencyBuckets = new AtomicLong[61];
-    private long averageLatency = 0; // for the last 60 seconds
-    private final AtomicLong totalTransactions = new AtomicLong(0);
+    // client and server metrics, only touched by the reporter
+    private int bucketIndex = 0;
+    private final long[] tpsBuckets = new long[60];
+    private volatile long averageTps = 0; // for the last 60 seconds
+    private final long[] latencyBuckets = new long[60];
+    private volatile long averageLatency = 0; // for the last 60 seconds
+    private long mergedTransactions = 0;
+    private long mergedLatency = 0;
+    private long mergedBytesReceived = 0;
+    private long mergedBytesSent = 0;
+    private long mergedErrors = 0;
+    private Histogram mergedHistogram = new Histogram(); // since start, all recorders
+    private Histogram totalHistogram = new Histogram(); // since start, as of the previous merge
+    private final Histogram intervalHistogram = new Histogram(); // last second
+    private volatile TimeSeriesWriter resultsWriter = null;
+    private final long[] resultsRecord = new long[TimeSeriesWriter.FIELDS.length];
     
     // server only metrics
-    private final ConcurrentHashMap<Integer, AtomicLong> remotePortMap = new ConcurrentHashMap<>(); // total per remote port
+    private final Set<ConnectionStats> connections = ConcurrentHashMap.newKeySet();
     
     public Metrics(Vertx vertx, boolean client) {
-        
         this.vertx = vertx;
         this.client = client;
-        
-        // initialize tps buckets
-        for (int i = 0; i < tpsBuckets.length; i++) {
-            tpsBuckets[i] = new AtomicInteger(0);
-        }
-        
-        // intialize latency buckets
-        for (int i = 0; i < latencyBuckets.length; i++) {
-            latencyBuckets[i] = new AtomicLong(0);
-        }
+        this.name = client ? "Client" : "Server";
+    }
+    
+    /**
+     * Creates client metrics with their own name.
+     * 
+     * @param vertx to run the reporter on
+     * @param name the metrics are reported under
+     */
+    public Metrics(Vertx vertx, String name) {
+        this(vertx, true, name);
+    }
+    
+    private Metrics(Vertx vertx, boolean client, String name) {
+        this.vertx = vertx;
+        this.client = client;
+        this.name = name;
     }
 
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return child metrics, reported right after this metrics
+     */
+    public List<Metrics> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+    
+    /**
+     * @return statistics of the open connections, and of closed connections 
+     * until they were reported one last time (server only)
+     */
+    public Set<ConnectionStats> getConnections() {
+        return Collections.unmodifiableSet(connections);
+    }
+    
     public long getMaxTps() {
         return maxTps;
     }
@@ -68,24 +120,157 @@ public class Metrics {
     }
     
     public long getTotalTransactions() {
-        return totalTransactions.get();
+        long totalTransactions = 0;
+        for (Recorder threadRecorder : recorders) {
+            totalTransactions = totalTransactions + threadRecorder.getTransactions();
+        }
+        return totalTransactions;
+    }
+    
+    public long getTotalErrors() {
+        long totalErrors = 0;
+        for (Recorder threadRecorder : recorders) {
+            totalErrors = totalErrors + threadRecorder.getErrors();
+        }
+        return totalErrors;
+    }
+    
+    /**
+     * Merges the latency of all recorders, for metrics that are evaluated 
+     * once instead of reported every second.
+     * 
+     * @return histogram of all transactions logged so far
+     */
+    public Histogram getTotalHistogram() {
+        Histogram histogram = new Histogram();
+        for (Recorder threadRecorder : recorders) {
+            histogram.add(threadRecorder.getLatencyHistogram());
+        }
+        return histogram;
     }
     
     public void log(long latencyNanos) {
-        int index = bucketIndex.get();
-        tpsBuckets[index].incrementAndGet();
-        latencyBuckets[index].addAndGet(latencyNanos);
-        totalTransactions.incrementAndGet();
+        recorder.get().log(latencyNanos, 0, 0);
+    }
+    
+    public void log(long latencyNanos, long bytesReceived, long bytesSent) {
+        recorder.get().log(latencyNanos, bytesReceived, bytesSent);
+    }
+    
+    /**
+     * Adds a recorder that is not owned by a thread of this process, like 
+     * one that mirrors the totals of an agent. The same recorder may be 
+     * added to several metrics.
+     * 
+     * @param remoteRecorder to merge with the recorders of this metrics
+     */
+    public void addRecorder(Recorder remoteRecorder) {
+        recorders.add(remoteRecorder);
+    }
+    
+    /**
+     * @return totals of all recorders so far
+     */
+    public Recorder snapshot() {
+        Recorder snapshot = new Recorder();
+        for (Recorder threadRecorder : recorders) {
+            snapshot.add(threadRecorder);
+        }
+        return snapshot;
+    }
+    
+    public void logError() {
+        recorder.get().logError();
+    }
+    
+    /**
+     * Logs a transaction that was sent or received, it is in flight until 
+     * it is logged as transaction or error.
+     */
+    public void logStarted() {
+        recorder.get().logStarted();
     }
     
-    public void logRemotePortTransaction(int remotePort) {
+    /**
+     * Appends every following one second report to a results file.
+     * 
+     * @param writer of the results file, or null to stop appending
+     */
+    public void setResultsWriter(TimeSeriesWriter writer) {
+        this.resultsWriter = writer;
+    }
+    
+    /**
+     * Creates the statistics of a newly accepted connection. Called once per 
+     * connection, not per request.
+     * 
+     * @param remoteAddress of the connection
+     * @return statistics to attach to the connection
+     */
+    public ConnectionStats openConnection(String remoteAddress) {
+        ConnectionStats stats = new ConnectionStats(remoteAddress);
+        connections.add(stats);
+        return stats;
+    }
+    
+    /**
+     * Creates metrics for a part of the load. Transactions logged to the 
+     * child are not added to this metrics, they have to be logged to both.
+     * 
+     * @param childName appended to the name of this metrics
+     * @return child metrics, reported right after this metrics
+     */
+    public Metrics createChild(String childName) {
+        Metrics child = new Metrics(vertx, client, String.format("%s [%s]", name, childName));
+        children.add(child);
+        return child;
+    }
+    
+    /**
+     * Creates metrics for one stage of a load profile. Stage metrics are not 
+     * reported every second, their summary is printed once the stage ended.
+     * 
+     * @param stageName name of the stage
+     * @return stage metrics
+     */
+    public Metrics createStage(String stageName) {
+        return new Metrics(vertx, client, String.format("%s Stage [%s]", name, stageName));
+    }
+    
+    /**
+     * Tags every following one second report with a stage.
+     * 
+     * @param stage name of the running stage, or null if none
+     */
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+    
+    /**
+     * Prints throughput and latency percentiles of everything logged so far. 
+     * Used for metrics that are not reported every second.
+     * 
+     * @param durationNanos the transactions were logged over
+     */
+    public void printSummary(long durationNanos) {
         
-        // log transaction for remote client port
-        if (remotePortMap.containsKey(remotePort)) {
-            remotePortMap.get(remotePort).incrementAndGet();
-        } else {
-            remotePortMap.put(remotePort, new AtomicLong(1));
+        long transactions = 0;
+        long latency = 0;
+        long errors = 0;
+        Histogram histogram = new Histogram();
+        for (Recorder threadRecorder : recorders) {
+            transactions = transactions + threadRecorder.getTransactions();
+            latency = latency + threadRecorder.getLatencyNanos();
+            errors = errors + threadRecorder.getErrors();
+            histogram.add(threadRecorder.getLatencyHistogram());
         }
+        
+        System.out.printf("%s TPS = [%s], Latency Nanos = [%s], Total Transactions = [%s], Total Errors = [%s]\n",
+                name, 
+                durationNanos > 0 ? transactions * 1_000_000_000L / durationNanos : 0,
+                transactions > 0 ? latency / transactions : 0,
+                transactions, errors);
+        this.printPercentiles(name, "Summary", histogram);
     }
     
     public synchronized void start() {
@@ -93,44 +278,10 @@ public class Metrics {
         // server and client stats (so far)
         if (this.timerId1Second == -1) {
             this.timerId1Second = this.vertx.setPeriodic(1_000, handler -> {
-
-                int index = 0;
-
-                if (bucketIndex.get() == (tpsBuckets.length - 1)) {
-                    bucketIndex.set(0);
-                    tpsBuckets[0].set(0);
-                    latencyBuckets[0].set(0);
-                } else {
-                    index = bucketIndex.incrementAndGet();
-                    tpsBuckets[index].set(0);
-                    latencyBuckets[index].set(0);
-                }
-
-                long totalTps = 0;
-                long totalLatency = 0;
-
-                for (int i = 0; i < tpsBuckets.length; i++) {
-                    if (i != index) {
-                        // do not count current index
-                        int tps = tpsBuckets[i].get();
-                        long latency = latencyBuckets[i].get();
-                        
-                        if (tps > 0) {
-                            totalTps = totalTps + tps;
-                            totalLatency = totalLatency + (latency / tps);
-                        }
-                    }
-                }
-
-                averageTps = (totalTps / 60);
-                averageLatency = (totalLatency / 60);
-                
-                if (averageTps > maxTps) {
-                    maxTps = averageTps;
+                this.report();
+                for (Metrics child : children) {
+                    child.report();
                 }
-
-                System.out.printf("%s TPS = [%s], Latency Nanos = [%s], Total Transactions = [%s]\n",
-                        client ? "Client" : "Server", averageTps, averageLatency, totalTransactions.get());
             });
         }
 
@@ -140,14 +291,131 @@ public class Metrics {
                 this.timerId15Seconds = this.vertx.setPeriodic(15_000, handler -> {
                     StringBuilder sb = new StringBuilder();
                     sb.append("\n");
-                    for (Map.Entry<Integer, AtomicLong> entry : remotePortMap.entrySet()) {
-                        sb.append(String.format("Remote Port [%s] = [%s]\n",
-                                entry.getKey(), entry.getValue().get()));
+                    for (ConnectionStats stats : connections) {
+                        sb.append(String.format("Connection [%s] TPS = [%s], Streams = [%s], Peak Streams = [%s], Total Transactions = [%s], Lifetime Seconds = [%s]%s\n",
+                                stats.getRemoteAddress(),
+                                stats.report(),
+                                stats.getStreams(),
+                                stats.getPeakStreams(),
+                                stats.getTransactions(),
+                                stats.getLifetimeNanos() / 1_000_000_000L,
+                                stats.isClosed() ? " (closed)" : ""));
+                        
+                        // closed connections are reported one last time
+                        if (stats.isClosed()) {
+                            connections.remove(stats);
+                        }
                     }
                     System.out.println(sb.toString());
                 });
             }
         }
     }
+
+    /**
+     * Merges all recorders and prints the last second. Only called by the 
+     * one second timer, package private for the benchmarks.
+     */
+    void report() {
+
+        // merge all recorders, their counters only grow so the last 
+        // second is whatever was added since the previous merge
+        long transactions = 0;
+        long latency = 0;
+        long bytesReceived = 0;
+        long bytesSent = 0;
+        long errors = 0;
+        long started = 0;
+        mergedHistogram.reset();
+
+        for (Recorder threadRecorder : recorders) {
+            errors = errors + threadRecorder.getErrors();
+            transactions = transactions + threadRecorder.getTransactions();
+            latency = latency + threadRecorder.getLatencyNanos();
+            bytesReceived = bytesReceived + threadRecorder.getBytesReceived();
+            bytesSent = bytesSent + threadRecorder.getBytesSent();
+            started = started + threadRecorder.getStarted();
+            mergedHistogram.add(threadRecorder.getLatencyHistogram());
+        }
+
+        intervalHistogram.setToDifference(mergedHistogram, totalHistogram);
+        Histogram previousHistogram = totalHistogram;
+        totalHistogram = mergedHistogram;
+        mergedHistogram = previousHistogram;
+
+        bucketIndex = (bucketIndex + 1) % tpsBuckets.length;
+        tpsBuckets[bucketIndex] = transactions - mergedTransactions;
+        latencyBuckets[bucketIndex] = latency - mergedLatency;
+        mergedTransactions = transactions;
+        mergedLatency = latency;
+        long bytesReceivedPerSecond = bytesReceived - mergedBytesReceived;
+        long bytesSentPerSecond = bytesSent - mergedBytesSent;
+        mergedBytesReceived = bytesReceived;
+        mergedBytesSent = bytesSent;
+        long intervalErrors = errors - mergedErrors;
+        mergedErrors = errors;
+
+        long totalTps = 0;
+        long totalLatency = 0;
+
+        for (int i = 0; i < tpsBuckets.length; i++) {
+            long tps = tpsBuckets[i];
+            long bucketLatency = latencyBuckets[i];
+
+            if (tps > 0) {
+                totalTps = totalTps + tps;
+                totalLatency = totalLatency + (bucketLatency / tps);
+            }
+        }
+
+        averageTps = (totalTps / 60);
+        averageLatency = (totalLatency / 60);
+
+        if (averageTps > maxTps) {
+            maxTps = averageTps;
+        }
+
+        // errors and stage are only printed when there are any
+        String currentStage = stage;
+        System.out.printf("%s TPS = [%s], Latency Nanos = [%s], Total Transactions = [%s]%s%s\n",
+                name, averageTps, averageLatency, transactions, 
+                errors == 0 ? "" : String.format(", Total Errors = [%s]", errors),
+                currentStage == null ? "" : String.format(", Stage = [%s]", currentStage));
+        System.out.printf("%s Bytes Received/s = [%s], Bytes Sent/s = [%s]\n",
+                name, bytesReceivedPerSecond, bytesSentPerSecond);
+        this.printPercentiles(name, "Interval", intervalHistogram);
+        this.printPercentiles(name, "Total", totalHistogram);
+        
+        // record is reused, appending to the mapped file allocates nothing
+        TimeSeriesWriter writer = resultsWriter;
+        if (writer != null) {
+            resultsRecord[0] = System.currentTimeMillis();
+            resultsRecord[1] = tpsBuckets[bucketIndex];
+            resultsRecord[2] = intervalErrors;
+            resultsRecord[3] = averageTps;
+            resultsRecord[4] = averageLatency;
+            resultsRecord[5] = transactions;
+            resultsRecord[6] = errors;
+            resultsRecord[7] = bytesReceivedPerSecond;
+            resultsRecord[8] = bytesSentPerSecond;
+            resultsRecord[9] = Math.max(0, started - transactions - errors);
+            resultsRecord[10] = intervalHistogram.getValueAtPercentile(50.0);
+            resultsRecord[11] = intervalHistogram.getValueAtPercentile(90.0);
+            resultsRecord[12] = intervalHistogram.getValueAtPercentile(99.0);
+            resultsRecord[13] = intervalHistogram.getValueAtPercentile(99.9);
+            resultsRecord[14] = intervalHistogram.getMaxValue();
+            writer.append(resultsRecord);
+        }
+    }
+
+    private void printPercentiles(String name, String period, Histogram histogram) {
+        System.out.printf("%s %s Latency Nanos p50 = [%s], p90 = [%s], p99 = [%s], p99.9 = [%s], max = [%s]\n",
+                name, period,
+                histogram.getValueAtPercentile(50.0),
+                histogram.getValueAtPercentile(90.0),
+                histogram.getValueAtPercentile(99.0),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue());
+    }
     
 }
@@ -0,0 +1,219 @@
+/*
+ * MetricsEndpoint.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves the metrics in OpenMetrics text format for Prometheus to scrape.
+ *
+ * The endpoint runs on its own single event loop vertx instance, so scrapes
+ * never compete with the client or server verticles for an event loop. A
+ * scrape only reads the counters of the recorders, which are published with
+ * release stores, so building the response never blocks or slows down
+ * logging a transaction.
+ */
+public class MetricsEndpoint {
+
+    static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final String PREFIX = "vertx_load_tester_";
+
+    // latency bucket bounds in nanos, 100 micros to 10 seconds
+    private static final long[] BUCKET_BOUNDS = {
+        100_000L, 250_000L, 500_000L,
+        1_000_000L, 2_500_000L, 5_000_000L,
+        10_000_000L, 25_000_000L, 50_000_000L,
+        100_000_000L, 250_000_000L, 500_000_000L,
+        1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+
+    private final Metrics metrics;
+    private final String host;
+    private final int port;
+    private Vertx vertx = null;
+    private HttpServer httpServer = null;
+
+    /**
+     * @param metrics to serve, with all of its children
+     * @param host to listen on
+     * @param port to listen on
+     */
+    public MetricsEndpoint(Metrics metrics, String host, int port) {
+        this.metrics = metrics;
+        this.host = host;
+        this.port = port;
+    }
+
+    public synchronized Future<HttpServer> start() {
+
+        vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(1).setWorkerPoolSize(1));
+
+        return vertx.createHttpServer(new HttpServerOptions().setHost(host).setPort(port))
+                .requestHandler(request -> {
+                    if (request.path().equals("/metrics")) {
+                        request.response()
+                                .putHeader("content-type", CONTENT_TYPE)
+                                .end(this.scrape());
+                    } else {
+                        request.response().setStatusCode(404).end();
+                    }
+                })
+                .listen()
+                .onSuccess(server -> {
+                    httpServer = server;
+                    System.out.printf("Metrics endpoint listening on [%s:%s/metrics].\n", host, server.actualPort());
+                })
+                .onFailure(failure -> System.out.printf("Metrics endpoint failed to listen on [%s:%s], %s\n",
+                        host, port, failure.getMessage()));
+    }
+
+    public synchronized void stop() {
+        if (vertx != null) {
+            vertx.close();
+            vertx = null;
+            httpServer = null;
+        }
+    }
+
+    /**
+     * @return port the endpoint listens on, or -1 if it is not listening
+     */
+    public synchronized int getActualPort() {
+        return httpServer == null ? -1 : httpServer.actualPort();
+    }
+
+    /**
+     * Builds one scrape of all metrics.
+     *
+     * @return metrics in OpenMetrics text format
+     */
+    String scrape() {
+
+        List<Metrics> all = new ArrayList<>();
+        all.add(metrics);
+        all.addAll(metrics.getChildren());
+
+        List<Recorder> snapshots = new ArrayList<>();
+        for (Metrics each : all) {
+            snapshots.add(each.snapshot());
+        }
+
+        StringBuilder sb = new StringBuilder(4_096);
+
+        family(sb, "transactions", "counter", "Completed transactions.");
+        for (int i = 0; i < all.size(); i++) {
+            sample(sb, "transactions_total", all.get(i), snapshots.get(i).getTransactions());
+        }
+
+        family(sb, "errors", "counter", "Failed transactions and unexpected responses.");
+        for (int i = 0; i < all.size(); i++) {
+            sample(sb, "errors_total", all.get(i), snapshots.get(i).getErrors());
+        }
+
+        family(sb, "bytes_received", "counter", "Body bytes received.");
+        for (int i = 0; i < all.size(); i++) {
+            sample(sb, "bytes_received_total", all.get(i), snapshots.get(i).getBytesReceived());
+        }
+
+        family(sb, "bytes_sent", "counter", "Body bytes sent.");
+        for (int i = 0; i < all.size(); i++) {
+            sample(sb, "bytes_sent_total", all.get(i), snapshots.get(i).getBytesSent());
+        }
+
+        family(sb, "in_flight", "gauge", "Transactions started and not completed yet.");
+        sample(sb, "in_flight", metrics, Math.max(0, snapshots.get(0).getStarted()
+                - snapshots.get(0).getTransactions() - snapshots.get(0).getErrors()));
+
+        family(sb, "average_tps", "gauge", "Transactions per second, averaged over the last sixty seconds.");
+        for (Metrics each : all) {
+            sample(sb, "average_tps", each, each.getAverageTps());
+        }
+
+        family(sb, "latency_seconds", "histogram", "Transaction latency.");
+        for (int i = 0; i < all.size(); i++) {
+            Recorder snapshot = snapshots.get(i);
+            Histogram histogram = snapshot.getLatencyHistogram();
+            String labels = labels(all.get(i));
+            for (long bound : BUCKET_BOUNDS) {
+                sb.append(PREFIX).append("latency_seconds_bucket{").append(labels)
+                        .append(",le=\"").append(seconds(bound)).append("\"} ")
+                        .append(histogram.getCountAtOrBelow(bound)).append('\n');
+            }
+            long count = histogram.getTotalCount();
+            sb.append(PREFIX).append("latency_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ")
+                    .append(count).append('\n');
+            sb.append(PREFIX).append("latency_seconds_count{").append(labels).append("} ")
+                    .append(count).append('\n');
+            sb.append(PREFIX).append("latency_seconds_sum{").append(labels).append("} ")
+                    .append(seconds(snapshot.getLatencyNanos())).append('\n');
+        }
+
+        if (!metrics.getConnections().isEmpty()) {
+
+            family(sb, "connection_streams", "gauge", "Open streams of a connection.");
+            for (ConnectionStats stats : metrics.getConnections()) {
+                connectionSample(sb, "connection_streams", stats, stats.getStreams());
+            }
+
+            family(sb, "connection_peak_streams", "gauge", "Highest number of open streams of a connection.");
+            for (ConnectionStats stats : metrics.getConnections()) {
+                connectionSample(sb, "connection_peak_streams", stats, stats.getPeakStreams());
+            }
+
+            family(sb, "connection_transactions", "counter", "Completed transactions of a connection.");
+            for (ConnectionStats stats : metrics.getConnections()) {
+                connectionSample(sb, "connection_transactions_total", stats, stats.getTransactions());
+            }
+        }
+
+        sb.append("# EOF\n");
+        return sb.toString();
+    }
+
+    private static void family(StringBuilder sb, String name, String type, String help) {
+        sb.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        sb.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, Metrics metrics, long value) {
+        sb.append(PREFIX).append(name).append('{').append(labels(metrics)).append("} ").append(value).append('\n');
+    }
+
+    private void connectionSample(StringBuilder sb, String name, ConnectionStats stats, long value) {
+        sb.append(PREFIX).append(name).append('{').append(labels(metrics))
+                .append(",remote=\"").append(escape(stats.getRemoteAddress())).append("\"} ")
+                .append(value).append('\n');
+    }
+
+    private static String labels(Metrics metrics) {
+        return "metrics=\"" + escape(metrics.getName()) + "\"";
+    }
+
+    /**
+     * @return exact seconds in plain notation, a double would print small 
+     * bucket bounds like 1.0E-4
+     */
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+}
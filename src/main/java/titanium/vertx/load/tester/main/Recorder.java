@@ -0,0 +1,163 @@
+/*
+ * Recorder.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics recorded by exactly one thread, usually an event loop. Counters
+ * only ever grow and are published with release stores, so recording never
+ * contends with other threads and the reporter gets the last interval by
+ * subtracting the previous merge instead of clearing anything.
+ * 
+ * A recorder can also mirror the totals of another process. The owning 
+ * thread then sets the counters from the last report of that process, 
+ * which keeps them growing just the same.
+ */
+public class Recorder {
+
+    private final AtomicLong transactions = new AtomicLong(0);
+    private final AtomicLong latencyNanos = new AtomicLong(0);
+    private final AtomicLong bytesReceived = new AtomicLong(0);
+    private final AtomicLong bytesSent = new AtomicLong(0);
+    private final AtomicLong errors = new AtomicLong(0);
+    private final AtomicLong started = new AtomicLong(0);
+    private final Histogram latencyHistogram = new Histogram();
+
+    /**
+     * Logs one transaction. Must only be called by the owning thread.
+     *
+     * @param latencyNanos of the transaction
+     * @param bytesReceived body bytes received by the transaction
+     * @param bytesSent body bytes sent by the transaction
+     */
+    public void log(long latencyNanos, long bytesReceived, long bytesSent) {
+        this.transactions.setRelease(this.transactions.getPlain() + 1);
+        this.latencyNanos.setRelease(this.latencyNanos.getPlain() + latencyNanos);
+        this.latencyHistogram.record(latencyNanos);
+        if (bytesReceived != 0) {
+            this.bytesReceived.setRelease(this.bytesReceived.getPlain() + bytesReceived);
+        }
+        if (bytesSent != 0) {
+            this.bytesSent.setRelease(this.bytesSent.getPlain() + bytesSent);
+        }
+    }
+
+    /**
+     * Logs one failed transaction, a failure to send or an unexpected 
+     * response. Must only be called by the owning thread.
+     */
+    public void logError() {
+        this.errors.setRelease(this.errors.getPlain() + 1);
+    }
+
+    /**
+     * Logs one transaction that was sent or received and has not completed 
+     * yet. Must only be called by the owning thread.
+     */
+    public void logStarted() {
+        this.started.setRelease(this.started.getPlain() + 1);
+    }
+
+    public long getTransactions() {
+        return transactions.get();
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * @return transactions started, in flight until they are logged as 
+     * transaction or error
+     */
+    public long getStarted() {
+        return started.get();
+    }
+
+    public Histogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * Adds the counters of another recorder. Must only be called by the 
+     * owning thread.
+     *
+     * @param other recorder to add
+     */
+    void add(Recorder other) {
+        this.transactions.setRelease(this.transactions.getPlain() + other.getTransactions());
+        this.latencyNanos.setRelease(this.latencyNanos.getPlain() + other.getLatencyNanos());
+        this.bytesReceived.setRelease(this.bytesReceived.getPlain() + other.getBytesReceived());
+        this.bytesSent.setRelease(this.bytesSent.getPlain() + other.getBytesSent());
+        this.errors.setRelease(this.errors.getPlain() + other.getErrors());
+        this.started.setRelease(this.started.getPlain() + other.getStarted());
+        this.latencyHistogram.add(other.getLatencyHistogram());
+    }
+
+    /**
+     * Encodes the counters, the histogram only with its non empty buckets as 
+     * pairs of bucket index and count.
+     *
+     * @return counters as json
+     */
+    public JsonObject toJson() {
+        JsonArray histogram = new JsonArray();
+        for (int i = 0; i < Histogram.BUCKET_COUNT; i++) {
+            long count = latencyHistogram.getCount(i);
+            if (count != 0) {
+                histogram.add(i).add(count);
+            }
+        }
+        return new JsonObject()
+                .put("transactions", getTransactions())
+                .put("latencyNanos", getLatencyNanos())
+                .put("bytesReceived", getBytesReceived())
+                .put("bytesSent", getBytesSent())
+                .put("errors", getErrors())
+                .put("started", getStarted())
+                .put("histogram", histogram);
+    }
+
+    /**
+     * Sets the counters to the totals of another process. Must only be 
+     * called by the owning thread.
+     *
+     * @param json counters encoded by {@link #toJson()}
+     */
+    public void set(JsonObject json) {
+        this.transactions.setRelease(json.getLong("transactions", 0L));
+        this.latencyNanos.setRelease(json.getLong("latencyNanos", 0L));
+        this.bytesReceived.setRelease(json.getLong("bytesReceived", 0L));
+        this.bytesSent.setRelease(json.getLong("bytesSent", 0L));
+        this.errors.setRelease(json.getLong("errors", 0L));
+        this.started.setRelease(json.getLong("started", 0L));
+        JsonArray histogram = json.getJsonArray("histogram", new JsonArray());
+        for (int i = 0; i + 1 < histogram.size(); i = i + 2) {
+            latencyHistogram.setCount(histogram.getInteger(i), histogram.getLong(i + 1));
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * ResponseBody.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.web.codec.BodyCodec;
+import io.vertx.ext.web.codec.spi.BodyStream;
+
+/**
+ * A response body as the client sees it: when its first byte arrived and 
+ * how many bytes it had. The web client creates the body stream as soon as 
+ * the response headers arrived, which is taken as the first byte, then 
+ * writes every chunk of the body to it.
+ * 
+ * A streaming body counts the chunks and drops them, so what the client 
+ * allocates no longer grows with the size of the responses. A buffering 
+ * body keeps them like the default codec of the web client does.
+ */
+public class ResponseBody {
+
+    /**
+     * Counts body bytes without keeping them.
+     */
+    public static final BodyCodec<ResponseBody> STREAMING = handler -> 
+            handler.handle(Future.succeededFuture(new Stream(false)));
+
+    /**
+     * Keeps the whole body in a buffer.
+     */
+    public static final BodyCodec<ResponseBody> BUFFERING = handler -> 
+            handler.handle(Future.succeededFuture(new Stream(true)));
+
+    private final long firstByteTime;
+    private final long bytes;
+    private final Buffer buffer;
+
+    private ResponseBody(long firstByteTime, long bytes, Buffer buffer) {
+        this.firstByteTime = firstByteTime;
+        this.bytes = bytes;
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return nano time the response headers arrived
+     */
+    public long getFirstByteTime() {
+        return firstByteTime;
+    }
+
+    /**
+     * @return length of the body
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return whole body, or null if it was streamed
+     */
+    public Buffer getBuffer() {
+        return buffer;
+    }
+
+    private static class Stream implements BodyStream<ResponseBody> {
+
+        private final long firstByteTime = System.nanoTime();
+        private final Buffer buffer; // null when streaming
+        private final Promise<ResponseBody> result = Promise.promise();
+        private long bytes = 0;
+
+        private Stream(boolean buffering) {
+            this.buffer = buffering ? Buffer.buffer() : null;
+        }
+
+        @Override
+        public Future<ResponseBody> result() {
+            return result.future();
+        }
+
+        @Override
+        public void handle(Throwable failure) {
+            result.tryFail(failure);
+        }
+
+        @Override
+        public Future<Void> write(Buffer data) {
+            bytes += data.length();
+            if (buffer != null) {
+                buffer.appendBuffer(data);
+            }
+            return Future.succeededFuture();
+        }
+
+        @Override
+        public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+            this.write(data);
+            if (handler != null) {
+                handler.handle(Future.succeededFuture());
+            }
+        }
+
+        @Override
+        public void end(Handler<AsyncResult<Void>> handler) {
+            result.tryComplete(new ResponseBody(firstByteTime, bytes, buffer));
+            if (handler != null) {
+                handler.handle(Future.succeededFuture());
+            }
+        }
+
+        @Override
+        public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+            return this;
+        }
+
+        @Override
+        public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+            return this;
+        }
+
+        @Override
+        public boolean writeQueueFull() {
+            return false;
+        }
+
+        @Override
+        public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * ResponseTemplate.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import java.io.File;
+import java.util.Map;
+import titanium.vertx.load.tester.config.ServerConfiguration;
+
+/**
+ * The server response, encoded once and shared by all verticles. Header
+ * names and values are ascii strings netty writes without encoding them
+ * again, and the body is an unreleasable direct buffer every response gets
+ * a duplicate of, so sending a response neither copies nor encodes anything.
+ *
+ * When a body file is configured the file is sent with send file instead.
+ * Over HTTP/1.x without TLS that is a zero copy sendfile system call, over
+ * HTTP/2 vertx streams the file in chunks.
+ */
+public class ResponseTemplate {
+
+    private final int statusCode;
+    private final CharSequence[] headerNames;
+    private final CharSequence[] headerValues;
+    private final Buffer body;
+    private final String bodyFile;
+
+    public ResponseTemplate(ServerConfiguration config) {
+
+        this.statusCode = config.getStatusCode();
+        this.bodyFile = config.getBodyFile();
+
+        if (bodyFile != null) {
+            File file = new File(bodyFile);
+            if (!file.isFile() || !file.canRead()) {
+                throw new IllegalArgumentException(String.format("Body file [%s] is not a readable file.", bodyFile));
+            }
+        }
+
+        if (bodyFile == null) {
+            this.body = BodySource.fromString(config.getBody());
+        } else {
+            this.body = null;
+        }
+
+        // content length is added up front so vertx does not format it per response
+        MultiMap headers = config.getHeaders();
+        boolean contentLength = bodyFile == null && !headers.contains(HttpHeaders.CONTENT_LENGTH);
+        int size = headers.size() + (contentLength ? 1 : 0);
+        this.headerNames = new CharSequence[size];
+        this.headerValues = new CharSequence[size];
+
+        int i = 0;
+        for (Map.Entry<String, String> header : headers) {
+            headerNames[i] = HttpHeaders.createOptimized(header.getKey().toLowerCase());
+            headerValues[i] = HttpHeaders.createOptimized(header.getValue());
+            i++;
+        }
+
+        if (contentLength) {
+            headerNames[i] = HttpHeaders.CONTENT_LENGTH;
+            headerValues[i] = HttpHeaders.createOptimized(String.valueOf(body == null ? 0 : body.length()));
+        }
+    }
+
+    /**
+     * Sends the response. Must be called on the event loop of the request.
+     *
+     * @param response to send
+     */
+    public void send(HttpServerResponse response) {
+
+        response.setStatusCode(statusCode);
+
+        MultiMap headers = response.headers();
+        for (int i = 0; i < headerNames.length; i++) {
+            headers.add(headerNames[i], headerValues[i]);
+        }
+
+        if (bodyFile != null) {
+            response.sendFile(bodyFile);
+        } else if (body == null) {
+            response.end();
+        } else {
+            response.end(body);
+        }
+    }
+
+}
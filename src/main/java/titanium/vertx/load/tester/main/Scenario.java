@@ -0,0 +1,79 @@
+/*
+ * Scenario.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import java.util.Map;
+import titanium.vertx.load.tester.config.ScenarioConfiguration;
+
+/**
+ * One request of the workload mix with its body loaded and its headers 
+ * encoded once and shared by all clients. With a feeder a request starts 
+ * from these headers and only the headers of its record are replaced.
+ */
+public class Scenario {
+
+    private final ScenarioConfiguration config;
+    private final Buffer body;
+    private final Metrics metrics;
+    private final MultiMap headers;
+
+    /**
+     * @param config of the scenario
+     * @param metrics of the scenario only, or null if the scenario is the 
+     * whole load
+     */
+    public Scenario(ScenarioConfiguration config, Metrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        if (config.getBodyFile() != null) {
+            this.body = BodySource.fromFile(config.getBodyFile());
+        } else {
+            this.body = BodySource.fromString(config.getBody());
+        }
+
+        this.headers = HttpHeaders.headers();
+        for (Map.Entry<String, String> header : config.getHeaders()) {
+            headers.add(HttpHeaders.createOptimized(header.getKey()),
+                    HttpHeaders.createOptimized(header.getValue()));
+        }
+    }
+
+    public ScenarioConfiguration getConfig() {
+        return config;
+    }
+
+    /**
+     * @return body shared by all requests, or null to send requests without 
+     * body
+     */
+    public Buffer getBody() {
+        return body;
+    }
+
+    /**
+     * @return headers of the scenario, encoded once, never modify
+     */
+    public MultiMap getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return metrics of the scenario only, or null if the scenario is the 
+     * whole load
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+}
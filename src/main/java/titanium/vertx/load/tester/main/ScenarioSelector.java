@@ -0,0 +1,105 @@
+/*
+ * ScenarioSelector.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks scenarios at random in proportion to their weights using the alias
+ * method. The tables are built once, afterwards every pick is one random
+ * index and one random comparison no matter how many scenarios there are,
+ * and nothing is allocated.
+ *
+ * Not thread safe, every client has its own selector.
+ */
+public class ScenarioSelector {
+
+    private final double[] probability;
+    private final int[] alias;
+    private final SplittableRandom random;
+
+    /**
+     * @param weights of the scenarios, at least one must be positive
+     * @param seed of the random generator
+     */
+    public ScenarioSelector(int[] weights, long seed) {
+
+        int n = weights.length;
+        long totalWeight = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Scenario weights must not be negative.");
+            }
+            totalWeight = totalWeight + weight;
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("At least one scenario must have a positive weight.");
+        }
+
+        this.probability = new double[n];
+        this.alias = new int[n];
+        this.random = new SplittableRandom(seed);
+
+        // scale weights so the average column is exactly one
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (double) weights[i] * n / totalWeight;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // every small column is topped up by a large column
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // whatever is left is full, up to rounding
+        while (largeCount > 0) {
+            int more = large[--largeCount];
+            probability[more] = 1.0;
+            alias[more] = more;
+        }
+        while (smallCount > 0) {
+            int less = small[--smallCount];
+            probability[less] = 1.0;
+            alias[less] = less;
+        }
+    }
+
+    /**
+     * @return index of the next scenario
+     */
+    public int next() {
+        if (probability.length == 1) {
+            return 0;
+        }
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+}
@@ -11,28 +11,46 @@
 package titanium.vertx.load.tester.main;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
-import io.vertx.core.VertxOptions;
 import io.vertx.core.WorkerExecutor;
+import io.vertx.core.http.HttpConnection;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import titanium.vertx.load.tester.config.ServerConfiguration;
+import titanium.vertx.load.tester.config.ServerConfiguration.BlockingExecutor;
+import titanium.vertx.load.tester.config.WorkConfiguration;
 
 /**
  * An http server with the desired number of verticles/event-loop-threads 
  * to process requests. Default number of verticles is 2x cpu cores. Each 
  * event loop thread processes requests for one TCP connection. Event loop 
  * threads are assigned new TCP connections in a round robin fashion.
+ * 
+ * With execute blocking on, the service logic runs either on a worker pool 
+ * of platform threads or on a virtual thread per request, and the response 
+ * is sent back on the event loop. A simulated service latency holds the 
+ * response on a timer instead, which uses no thread while it waits.
  */
 public class Server {
 
     private final Vertx vertx;
     private final ServerConfiguration config;
     private final Metrics metrics;
+    private ExecutorService virtualThreads; // null unless blocking on virtual threads
 
     public Server(Vertx vertx, ServerConfiguration config, Metrics metrics) {
         this.vertx = vertx;
@@ -42,31 +60,98 @@ public class Server {
 
     public void stop() {
         vertx.close();
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
     }
 
     public void start() {
-        System.out.printf("Deploying [%s] verticles.\n", VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE);
+        System.out.printf("Deploying [%s] verticles.\n", config.getVerticles());
         this.metrics.start();
-        this.deployLocalVerticle(new AtomicInteger(0));
+        
+        // response is encoded once and shared by all verticles
+        ResponseTemplate response = new ResponseTemplate(config);
+        
+        // handshakes are reported apart from the requests
+        Tls tls = null;
+        if (config.getTls() != null) {
+            tls = new Tls(config.getTls(), metrics.createChild("TLS Handshakes"));
+            tls.createKeyStore();
+        }
+        
+        // one virtual thread executor is shared by all verticles
+        if (config.isExecuteBlocking() && config.getBlockingExecutor() == BlockingExecutor.VIRTUAL) {
+            virtualThreads = createVirtualThreadExecutor();
+        }
+        
+        // delays are drawn from one distribution shared by all verticles
+        Delay delay = config.getDelay() == null ? null : new Delay(config.getDelay());
+        
+        // work is calibrated once, before any request competes for the cpu, 
+        // blocking millis are calibrated work too instead of a clock spin
+        CpuKernel kernel = config.getWork() == null ? null : new CpuKernel(config.getWork());
+        CpuKernel blocking = config.getBlockingMillis() <= 0 ? null 
+                : new CpuKernel(new WorkConfiguration(TimeUnit.MILLISECONDS.toMicros(config.getBlockingMillis()), 0));
+        
+        // deploy all verticles at once, vertx starts them in parallel
+        Tls verticleTls = tls;
+        vertx.deployVerticle(() -> new LocalVerticle(config, metrics, response, 
+                verticleTls, virtualThreads, delay, kernel, blocking),
+                new DeploymentOptions().setInstances(config.getVerticles()),
+                handler -> {
+                    if (handler.failed()) {
+                        handler.cause().printStackTrace();
+                    }
+                });
     }
 
-    private void deployLocalVerticle(final AtomicInteger counter) {
-        vertx.deployVerticle(new LocalVerticle(config, metrics), handler -> {
-            if (counter.incrementAndGet() < VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE) {
-                this.deployLocalVerticle(counter);
-            }
-        });
+    /**
+     * Looks up Executors.newVirtualThreadPerTaskExecutor, which only exists 
+     * on Java 21 and later, so the tester still builds for and runs on 
+     * older JDKs.
+     * 
+     * @return executor starting a virtual thread per task, or null to fall 
+     * back to the platform worker pool
+     */
+    private ExecutorService createVirtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            System.out.println("Blocking on virtual threads.");
+            return executor;
+        } catch (ReflectiveOperationException ex) {
+            System.out.printf("Virtual threads unavailable on Java [%s], blocking on [%s] platform threads.\n",
+                    System.getProperty("java.version"), config.getBlockingPoolSize());
+            return null;
+        }
     }
 
     private class LocalVerticle extends AbstractVerticle {
 
         private final ServerConfiguration config;
         private final Metrics metrics;
+        private final ResponseTemplate response;
+        private final Tls tls; // null for clear text
+        private final ExecutorService virtualThreads; // null to block on the worker pool
+        private final Delay delay; // null to respond right away
+        private final CpuKernel kernel; // null to do no work
+        private final CpuKernel blocking; // null unless blocking millis are set
         private HttpServer httpServer;
+        private WorkerExecutor worker;
+        private final Map<HttpConnection, ConnectionStats> connections = new IdentityHashMap<>(); // event loop only
+        private ConnectionStats unknownConnection; // created on the first miss, event loop only
 
-        public LocalVerticle(ServerConfiguration config, Metrics metrics) {
+        public LocalVerticle(ServerConfiguration config, Metrics metrics, ResponseTemplate response, 
+                Tls tls, ExecutorService virtualThreads, Delay delay, CpuKernel kernel, 
+                CpuKernel blocking) {
             this.config = config;
             this.metrics = metrics;
+            this.response = response;
+            this.tls = tls;
+            this.virtualThreads = virtualThreads;
+            this.delay = delay;
+            this.kernel = kernel;
+            this.blocking = blocking;
         }
 
         @Override
@@ -74,11 +159,21 @@ public class Server {
             
             HttpServerOptions options = new HttpServerOptions();
             options.getInitialSettings().setMaxConcurrentStreams(config.getMultiplexingLimit());
+            options.setAlpnVersions(config.getProtocol() == HttpVersion.HTTP_2 
+                    ? Arrays.asList(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1) 
+                    : Collections.singletonList(HttpVersion.HTTP_1_1));
             options.setHost(config.getHost());
             options.setPort(config.getPort());
+            Transport.apply(options, config.getTransport());
+            if (tls != null) {
+                // h2 or HTTP/1.1 is negotiated over ALPN
+                tls.apply(options);
+            }
 
-            WorkerExecutor worker = this.vertx.createSharedWorkerExecutor(
-                    "worker", 20, 100, TimeUnit.MILLISECONDS);
+            if (config.isExecuteBlocking() && virtualThreads == null) {
+                worker = this.vertx.createSharedWorkerExecutor(
+                        "worker", config.getBlockingPoolSize(), 100, TimeUnit.MILLISECONDS);
+            }
 
             this.vertx.createHttpServer(options)
                     .exceptionHandler(exceptionHandler -> {
@@ -86,31 +181,46 @@ public class Server {
                     })
                     .connectionHandler(connectionHandler -> {
                         System.out.println("Connection created.");
+                        
+                        // per connection statistics are created once here, 
+                        // requests find them by their connection
+                        ConnectionStats stats = metrics.openConnection(
+                                connectionHandler.remoteAddress().toString());
+                        connections.put(connectionHandler, stats);
+                        connectionHandler.closeHandler(handler -> {
+                            connections.remove(connectionHandler);
+                            stats.close();
+                        });
                     })
                     .requestHandler(requestHandler -> {
                         
+                        // vertx always accepts h2 without upgrade on clear 
+                        // text, an HTTP/1.1 only server refuses it instead
+                        if (requestHandler.version() == HttpVersion.HTTP_2 
+                                && config.getProtocol() != HttpVersion.HTTP_2) {
+                            requestHandler.connection().close();
+                            return;
+                        }
+                        
                         long receiveTime = System.nanoTime();
-                        int remotePort = requestHandler.connection().remoteAddress().port();
-                        metrics.logRemotePortTransaction(remotePort);
+                        ConnectionStats stats = this.statsOf(requestHandler.connection());
+                        stats.streamOpened();
+                        metrics.logStarted();
                         
-                        if (config.isExecuteBlocking()) {
-                            // offload service logic processing to worker thread
-                            // call me if you are going to do something crazy.
-                            Future<HttpServerResponse> future = worker.executeBlocking(handler -> {
-                                this.executeServiceLogic();
-                                handler.complete(requestHandler.response());
-                            }, false);
-
-                            future.onComplete(handler -> {
-                                this.sendResponse(handler.result());
-                                metrics.log(System.nanoTime() - receiveTime);
-                            });
+                        if (requestHandler.isEnded()) {
+                            this.processRequest(requestHandler, receiveTime, stats);
                         } else {
-                            // execute service logic on event loop thread!!!!!!!
-                            // DO NOT BLOCK VERTX EVENT LOOP!!!!!!!!!
-                            this.executeServiceLogic();
-                            this.sendResponse(requestHandler.response());
-                            metrics.log(System.nanoTime() - receiveTime);
+                            // read the whole request body before responding, 
+                            // chunks are only counted and never buffered
+                            requestHandler.end().onComplete(handler -> {
+                                if (handler.failed()) {
+                                    // reset or connection closed while reading
+                                    stats.streamClosed();
+                                    metrics.logError();
+                                } else {
+                                    this.processRequest(requestHandler, receiveTime, stats);
+                                }
+                            });
                         }
                     })
                     .listen(h -> {
@@ -123,6 +233,107 @@ public class Server {
                     });
         }
 
+        /**
+         * Looks up the statistics of a connection, one identity hash lookup 
+         * per request on the event loop. Requests of a connection without 
+         * statistics are counted on one fallback entry instead of failing.
+         * 
+         * @param connection of the request
+         * @return statistics of the connection, never null
+         */
+        private ConnectionStats statsOf(HttpConnection connection) {
+            ConnectionStats stats = connections.get(connection);
+            if (stats == null) {
+                if (unknownConnection == null) {
+                    unknownConnection = metrics.openConnection("unknown");
+                }
+                stats = unknownConnection;
+            }
+            return stats;
+        }
+
+        private void processRequest(HttpServerRequest request, long receiveTime, ConnectionStats stats) {
+            
+            if (config.isExecuteBlocking()) {
+                // offload service logic processing to worker thread
+                // call me if you are going to do something crazy.
+                Future<HttpServerResponse> future;
+                if (virtualThreads != null) {
+                    // no pool to queue on, every request gets its own thread
+                    Promise<HttpServerResponse> promise = Promise.promise();
+                    virtualThreads.execute(() -> {
+                        try {
+                            this.executeServiceLogic(receiveTime);
+                            this.context.runOnContext(handler -> promise.complete(request.response()));
+                        } catch (Throwable th) {
+                            this.context.runOnContext(handler -> promise.fail(th));
+                        }
+                    });
+                    future = promise.future();
+                } else {
+                    future = worker.executeBlocking(handler -> {
+                        this.executeServiceLogic(receiveTime);
+                        handler.complete(request.response());
+                    }, false);
+                }
+
+                future.onComplete(handler -> {
+                    if (handler.failed()) {
+                        this.fail(request, handler.cause(), stats);
+                    } else {
+                        this.respond(request, handler.result(), receiveTime, stats);
+                    }
+                });
+            } else {
+                // execute service logic on event loop thread!!!!!!!
+                // DO NOT BLOCK VERTX EVENT LOOP!!!!!!!!!
+                this.executeServiceLogic(receiveTime);
+                this.respond(request, request.response(), receiveTime, stats);
+            }
+        }
+
+        /**
+         * Sends the response once the simulated service latency has passed. 
+         * The delay is scheduled in nanos and the response is then sent from 
+         * the verticle's context like from any timer handler.
+         */
+        private void respond(HttpServerRequest request, HttpServerResponse response, 
+                long receiveTime, ConnectionStats stats) {
+            if (delay == null) {
+                this.complete(request, response, receiveTime, stats);
+            } else {
+                delay.schedule(this.context, handler -> {
+                    this.complete(request, response, receiveTime, stats);
+                });
+            }
+        }
+
+        private void complete(HttpServerRequest request, HttpServerResponse response, 
+                long receiveTime, ConnectionStats stats) {
+            stats.streamClosed();
+            if (response.closed()) {
+                // reset or connection closed while the response was pending
+                metrics.logError();
+                return;
+            }
+            this.sendResponse(request, response);
+            metrics.log(System.nanoTime() - receiveTime, 
+                    request.bytesRead(), response.bytesWritten());
+        }
+
+        /**
+         * Answers a request whose service logic threw with an internal 
+         * server error, and counts it as error.
+         */
+        private void fail(HttpServerRequest request, Throwable failure, ConnectionStats stats) {
+            failure.printStackTrace();
+            stats.streamClosed();
+            metrics.logError();
+            if (!request.response().closed()) {
+                request.response().setStatusCode(500).end();
+            }
+        }
+
         @Override
         public void stop() throws Exception {
             if (this.httpServer != null) {
@@ -131,22 +342,29 @@ public class Server {
             }
         }
 
-        private void executeServiceLogic() {
-            long endWorkTime = System.currentTimeMillis() + config.getBlockingMillis();
-            while (System.currentTimeMillis() < endWorkTime) {
+        private void executeServiceLogic(long receiveTime) {
+            if (blocking != null) {
                 // simulate time to execute service logic
+                blocking.run(receiveTime);
+            }
+            if (kernel != null) {
+                // every request hashes its own input
+                kernel.run(receiveTime);
             }
         }
         
-        private void sendResponse(HttpServerResponse response) {
+        private void sendResponse(HttpServerRequest request, HttpServerResponse response) {
             
-            response.setStatusCode(config.getStatusCode());
-            response.headers().addAll(config.getHeaders());
+            // without keep alive every HTTP/1.x connection carries one request
+            boolean close = !config.isKeepAlive() && request.version() != HttpVersion.HTTP_2;
+            if (close) {
+                response.putHeader(HttpHeaders.CONNECTION, HttpHeaders.CLOSE);
+            }
             
-            if (config.getBody() == null) {
-                response.end();
-            } else {
-                response.end(config.getBody());
+            this.response.send(response);
+            
+            if (close) {
+                request.connection().close();
             }
         }
     }
@@ -0,0 +1,185 @@
+/*
+ * ThroughputSearch.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import titanium.vertx.load.tester.config.SearchConfiguration;
+import titanium.vertx.load.tester.config.StageConfiguration;
+
+/**
+ * Searches for the highest request rate the server sustains within a p99
+ * latency and error rate objective. Every trial offers one rate for a warm
+ * up and a window, only the window is evaluated. The rate doubles until a
+ * trial fails, afterwards the search bisects between the highest sustainable
+ * and the lowest failing rate until they are close enough.
+ *
+ * A rate is only sustainable if nearly all requests of the window completed
+ * within a second after it, so a server that queues requests fails even if
+ * the requests it did answer were fast.
+ *
+ * Clients get the profile of the current trial from the search, all trial
+ * decisions are made on a vertx timer.
+ */
+public class ThroughputSearch implements Supplier<LoadProfile> {
+
+    private static final double MIN_COMPLETED = 0.95;
+
+    private final Vertx vertx;
+    private final SearchConfiguration config;
+    private final Metrics metrics;
+    private final Runnable finished;
+    private volatile LoadProfile profile;
+    private int trials = 0;
+    private volatile long sustainable = 0; // highest sustainable rate so far
+    private long failing = 0; // lowest failing rate so far, zero if none failed
+    private String sustainableResult = null;
+
+    /**
+     * @param vertx to run the trials on
+     * @param config of the search
+     * @param metrics creates the metrics of every trial
+     * @param finished called once the capacity is reported
+     */
+    public ThroughputSearch(Vertx vertx, SearchConfiguration config, Metrics metrics, Runnable finished) {
+        this.vertx = vertx;
+        this.config = config;
+        this.metrics = metrics;
+        this.finished = finished;
+    }
+
+    /**
+     * @return profile of the current trial
+     */
+    @Override
+    public LoadProfile get() {
+        return profile;
+    }
+
+    public void start() {
+        this.trial(config.getStartRequestsPerSecond());
+    }
+
+    /**
+     * @return highest sustainable rate found so far
+     */
+    public long getSustainableRequestsPerSecond() {
+        return sustainable;
+    }
+
+    private void trial(long rate) {
+
+        trials++;
+        String name = String.format("trial-%s %s rps", trials, rate);
+
+        List<StageConfiguration> stages = new ArrayList<>();
+        if (config.getWarmupSeconds() > 0) {
+            stages.add(new StageConfiguration(name + " warmup", config.getWarmupSeconds(), 0, rate, -1));
+        }
+        stages.add(new StageConfiguration(name, config.getWindowSeconds(), 0, rate, -1));
+
+        LoadProfile trial = new LoadProfile(stages, metrics, System.nanoTime());
+        profile = trial;
+        metrics.setStage(name);
+        System.out.printf("Search trial [%s] started at [%s] requests per second.\n", trials, rate);
+
+        // wait a sec after the window for its transactions to complete
+        int window = trial.getStageCount() - 1;
+        long delayNanos = trial.getStageEndTime(window) + 1_000_000_000L - System.nanoTime();
+        vertx.setTimer(Math.max(1, TimeUnit.NANOSECONDS.toMillis(delayNanos)), handler -> {
+            this.evaluate(trial, rate);
+        });
+    }
+
+    private void evaluate(LoadProfile trial, long rate) {
+
+        Metrics window = trial.getStageMetrics(trial.getStageCount() - 1);
+        long transactions = window.getTotalTransactions();
+        long errors = window.getTotalErrors();
+        long offered = rate * config.getWindowSeconds();
+        double completed = offered == 0 ? 1.0 : (transactions + errors) / (double) offered;
+        double errorRate = transactions + errors == 0 ? 1.0 : errors / (double) (transactions + errors);
+        double p99Millis = window.getTotalHistogram().getValueAtPercentile(99.0) / 1_000_000.0;
+
+        boolean passed = completed >= MIN_COMPLETED
+                && p99Millis <= config.getMaxP99Millis()
+                && errorRate <= config.getMaxErrorRate();
+
+        String result = String.format("p99 Millis = [%.3f], Error Rate = [%.5f], Completed = [%.3f]",
+                p99Millis, errorRate, completed);
+        System.out.printf("Search trial [%s] at [%s] requests per second %s, %s\n",
+                trials, rate, passed ? "sustained" : "failed", result);
+
+        if (passed) {
+            sustainableResult = result;
+        }
+
+        long next = this.next(rate, passed);
+        if (next <= 0 || trials >= config.getMaxTrials()) {
+            this.report();
+        } else {
+            this.trial(next);
+        }
+    }
+
+    /**
+     * Records the outcome of a trial and picks the rate of the next one.
+     *
+     * @param rate of the trial
+     * @param passed whether the trial met the objective
+     * @return rate of the next trial, zero once the search is done
+     */
+    long next(long rate, boolean passed) {
+
+        if (passed) {
+            sustainable = rate;
+        } else {
+            failing = rate;
+        }
+
+        long max = config.getMaxRequestsPerSecond();
+
+        if (failing == 0) {
+            // nothing failed yet, keep doubling up to the maximum
+            if (max > 0 && rate >= max) {
+                return 0;
+            }
+            return max > 0 ? Math.min(rate * 2, max) : rate * 2;
+        }
+
+        if (failing - sustainable <= config.getPrecision() * failing) {
+            return 0;
+        }
+
+        long next = sustainable + (failing - sustainable) / 2;
+        return next == sustainable || next == failing ? 0 : next;
+    }
+
+    private void report() {
+
+        // no more requests are due once the last trial ended
+        metrics.setStage(null);
+        System.out.printf("Search finished after [%s] trials.\n", trials);
+        if (sustainable == 0) {
+            System.out.printf("Maximum sustainable throughput = [0] requests per second, "
+                    + "lowest failing rate = [%s]\n", failing);
+        } else {
+            System.out.printf("Maximum sustainable throughput = [%s] requests per second, %s\n",
+                    sustainable, sustainableResult);
+        }
+
+        finished.run();
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * TimeSeriesReader.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file written by {@link TimeSeriesWriter} and converts it to csv
+ * or json for offline analysis.
+ */
+public class TimeSeriesReader {
+
+    private final String name;
+    private final long[][] records;
+
+    /**
+     * @param pathName of the file
+     */
+    public TimeSeriesReader(String pathName) {
+
+        try (FileChannel channel = FileChannel.open(Paths.get(pathName), StandardOpenOption.READ)) {
+
+            if (channel.size() < TimeSeriesWriter.HEADER_SIZE) {
+                throw new IllegalArgumentException(String.format("Results file [%s] has no header.", pathName));
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt(0) != TimeSeriesWriter.MAGIC) {
+                throw new IllegalArgumentException(String.format("[%s] is not a results file.", pathName));
+            } else if (mapped.getInt(4) != TimeSeriesWriter.VERSION
+                    || mapped.getInt(8) != TimeSeriesWriter.FIELDS.length) {
+                throw new IllegalArgumentException(String.format(
+                        "Results file [%s] has unsupported version [%s].", pathName, mapped.getInt(4)));
+            }
+
+            byte[] nameBytes = new byte[mapped.getShort(TimeSeriesWriter.NAME_OFFSET)];
+            for (int i = 0; i < nameBytes.length; i++) {
+                nameBytes[i] = mapped.get(TimeSeriesWriter.NAME_OFFSET + 2 + i);
+            }
+            this.name = new String(nameBytes, StandardCharsets.UTF_8);
+
+            // a file that was not closed is longer than its records
+            long complete = (channel.size() - TimeSeriesWriter.HEADER_SIZE) / TimeSeriesWriter.RECORD_SIZE;
+            int count = (int) Math.min(mapped.getLong(16), complete);
+            this.records = new long[count][TimeSeriesWriter.FIELDS.length];
+            for (int r = 0; r < count; r++) {
+                int offset = TimeSeriesWriter.HEADER_SIZE + r * TimeSeriesWriter.RECORD_SIZE;
+                for (int i = 0; i < TimeSeriesWriter.FIELDS.length; i++) {
+                    records[r][i] = mapped.getLong(offset + i * Long.BYTES);
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(String.format("Could not read results file [%s].", pathName), ex);
+        }
+    }
+
+    /**
+     * @return name of the metrics the file was written for
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return records in the order of {@link TimeSeriesWriter#FIELDS}
+     */
+    public long[][] getRecords() {
+        return records;
+    }
+
+    /**
+     * Prints one line per record after a line of field names.
+     *
+     * @param out to print to
+     */
+    public void printCsv(PrintStream out) {
+        out.println(String.join(",", TimeSeriesWriter.FIELDS));
+        for (long[] record : records) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < record.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(record[i]);
+            }
+            out.println(sb.toString());
+        }
+    }
+
+    /**
+     * Prints the name and an array of records as one json object.
+     *
+     * @param out to print to
+     */
+    public void printJson(PrintStream out) {
+        JsonArray recordList = new JsonArray();
+        for (long[] record : records) {
+            JsonObject json = new JsonObject();
+            for (int i = 0; i < record.length; i++) {
+                json.put(TimeSeriesWriter.FIELDS[i], record[i]);
+            }
+            recordList.add(json);
+        }
+        out.println(new JsonObject().put("name", name).put("records", recordList).encodePrettily());
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * TimeSeriesWriter.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends one fixed size record per reporting interval to a memory mapped
+ * file. Records are written with absolute puts into the mapping, so
+ * appending allocates nothing and never blocks on a write call, the os
+ * flushes the pages in the background.
+ *
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: magic,
+ * version, number of fields, number of records and the name of the metrics.
+ * The record count is updated after every record, so a file of a process
+ * that was killed still reads up to its last complete record. The file
+ * grows by mapping the next {@link #REGION_SIZE} bytes once the current
+ * region is full and is truncated to its records when closed.
+ *
+ * Use {@link TimeSeriesReader} to convert the file to csv or json.
+ */
+public class TimeSeriesWriter {
+
+    static final int MAGIC = 0x564C5453; // VLTS
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int NAME_OFFSET = 24;
+    static final int MAX_NAME_BYTES = HEADER_SIZE - NAME_OFFSET - 2;
+    static final long REGION_SIZE = 1 << 20;
+
+    /**
+     * Fields of every record, all of them longs.
+     */
+    static final String[] FIELDS = {
+        "timeMillis",
+        "transactions",
+        "errors",
+        "averageTps",
+        "averageLatencyNanos",
+        "totalTransactions",
+        "totalErrors",
+        "bytesReceivedPerSecond",
+        "bytesSentPerSecond",
+        "inFlight",
+        "p50Nanos",
+        "p90Nanos",
+        "p99Nanos",
+        "p999Nanos",
+        "maxNanos"
+    };
+
+    static final int RECORD_SIZE = FIELDS.length * Long.BYTES;
+
+    private final String pathName;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long records = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates the file, an existing file is replaced.
+     *
+     * @param pathName of the file
+     * @param name of the metrics written to the file
+     */
+    public TimeSeriesWriter(String pathName, String name) {
+
+        this.pathName = pathName;
+
+        try {
+            this.channel = FileChannel.open(Paths.get(pathName), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            this.regionStart = HEADER_SIZE;
+            this.region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(String.format("Could not create results file [%s].", pathName), ex);
+        }
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(nameBytes.length, MAX_NAME_BYTES);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, FIELDS.length);
+        header.putLong(16, 0);
+        header.putShort(NAME_OFFSET, (short) nameLength);
+        for (int i = 0; i < nameLength; i++) {
+            header.put(NAME_OFFSET + 2 + i, nameBytes[i]);
+        }
+    }
+
+    /**
+     * Appends one record. Ignored once the writer is closed.
+     *
+     * @param record values in the order of {@link #FIELDS}
+     */
+    public synchronized void append(long[] record) {
+
+        if (closed) {
+            return;
+        }
+
+        long position = HEADER_SIZE + records * RECORD_SIZE;
+        if (position + RECORD_SIZE > regionStart + REGION_SIZE) {
+            // once per region, several hours of one second records
+            try {
+                regionStart = position;
+                region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+            } catch (IOException ex) {
+                System.out.printf("Could not grow results file [%s], recording stopped.\n", pathName);
+                this.close();
+                return;
+            }
+        }
+
+        int offset = (int) (position - regionStart);
+        for (int i = 0; i < FIELDS.length; i++) {
+            region.putLong(offset + i * Long.BYTES, record[i]);
+        }
+
+        records++;
+        header.putLong(16, records);
+    }
+
+    /**
+     * @return number of records appended so far
+     */
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    /**
+     * Flushes the records and truncates the file to them.
+     */
+    public synchronized void close() {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            region.force();
+            header.force();
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+            channel.close();
+        } catch (IOException ex) {
+            System.out.printf("Could not close results file [%s].\n", pathName);
+        }
+    }
+
+}
@@ -0,0 +1,379 @@
+/*
+ * Tls.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.ssl.ClientAuth;
+import io.netty.handler.ssl.DelegatingSslContext;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.OpenSslSessionTicketKey;
+import io.netty.handler.ssl.ReferenceCountedOpenSslContext;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandler;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.net.JdkSSLEngineOptions;
+import io.vertx.core.net.OpenSSLEngineOptions;
+import io.vertx.core.net.PfxOptions;
+import io.vertx.core.net.SSLEngineOptions;
+import io.vertx.core.spi.tls.SslContextFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.TrustManagerFactory;
+import titanium.vertx.load.tester.config.TlsConfiguration;
+
+/**
+ * Applies TLS with ALPN to client and server options, on the configured SSL
+ * engine. When OpenSSL cannot be loaded the JDK engine is used instead and
+ * the reason is printed.
+ *
+ * Every handshake is logged to its own metrics, from the moment the tcp
+ * connection is established until the handshake completed. A failed
+ * handshake is logged as an error. Handshakes are never logged to the
+ * request metrics.
+ *
+ * Session resumption is controlled on the OpenSSL contexts vertx creates,
+ * the JDK engine always runs with its defaults. Without a session cache
+ * every session is invalidated once its handshake completed and no tickets
+ * are kept, so every connection runs a full handshake. Session tickets are
+ * switched on or off through the ticket keys of OpenSSL, without them
+ * sessions resume from the session cache of the server.
+ */
+public class Tls {
+
+    private final TlsConfiguration config;
+    private final Metrics handshakes;
+    private final TlsConfiguration.Engine engine;
+    private final byte[] ticketKey = new byte[48]; // name, hmac and aes key, shared by all contexts
+
+    /**
+     * Resolves the engine and prints the engine that was actually loaded.
+     * Create once per process and share between verticles.
+     *
+     * @param config of TLS
+     * @param handshakes every handshake is logged to
+     */
+    public Tls(TlsConfiguration config, Metrics handshakes) {
+        this.config = config;
+        this.handshakes = handshakes;
+        new SecureRandom().nextBytes(ticketKey);
+
+        if (config.getEngine() == TlsConfiguration.Engine.OPENSSL && !OpenSsl.isAvailable()) {
+            if (!config.isSessionCache() || !config.isSessionTickets()) {
+                throw new IllegalArgumentException(String.format(
+                        "TLS engine [openssl] is unavailable and the [jdk] engine cannot switch off "
+                        + "the session cache or session tickets: %s", OpenSsl.unavailabilityCause()));
+            }
+            System.out.printf("TLS engine [openssl] is unavailable, falling back to [jdk]: %s\n",
+                    OpenSsl.unavailabilityCause());
+            this.engine = TlsConfiguration.Engine.JDK;
+        } else {
+            this.engine = config.getEngine();
+            System.out.printf("TLS engine [%s] loaded, session cache [%s], session tickets [%s].\n",
+                    engine == TlsConfiguration.Engine.OPENSSL ? OpenSsl.versionString() : "jdk",
+                    config.isSessionCache(), config.isSessionTickets());
+        }
+    }
+
+    /**
+     * @return engine that was actually loaded
+     */
+    public TlsConfiguration.Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Applies TLS to the options of a client. Without a trust store any
+     * certificate is trusted and the host is not verified, as the server
+     * certificate is usually self signed.
+     *
+     * @param <T> http or web client options
+     * @param options of the client
+     * @return the options
+     */
+    public <T extends HttpClientOptions> T apply(T options) {
+
+        options.setSsl(true).setUseAlpn(true);
+        if (config.getTrustStore() == null) {
+            options.setTrustAll(true).setVerifyHost(false);
+        } else {
+            options.setTrustOptions(new PfxOptions()
+                    .setPath(config.getTrustStore())
+                    .setPassword(config.getPassword()));
+        }
+        options.setSslEngineOptions(new MeasuredEngineOptions(this.createEngineOptions()));
+
+        return options;
+    }
+
+    /**
+     * Applies TLS to the options of a server. The protocols offered over
+     * ALPN are the alpn versions of the options.
+     *
+     * @param options of the server
+     * @return the options
+     */
+    public HttpServerOptions apply(HttpServerOptions options) {
+
+        options.setSsl(true).setUseAlpn(true);
+        options.setKeyCertOptions(new PfxOptions()
+                .setPath(config.getKeyStore())
+                .setPassword(config.getPassword()));
+        options.setSslEngineOptions(new MeasuredEngineOptions(this.createEngineOptions()));
+
+        return options;
+    }
+
+    /**
+     * Generates a key store with a self signed certificate for localhost
+     * and 127.0.0.1 with keytool, unless the key store already exists.
+     */
+    public void createKeyStore() {
+
+        if (Files.exists(Paths.get(config.getKeyStore()))) {
+            return;
+        }
+
+        String keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool").toString();
+        ProcessBuilder builder = new ProcessBuilder(keytool, "-genkeypair",
+                "-alias", "vertx-load-tester",
+                "-keyalg", "EC", "-groupname", "secp256r1",
+                "-dname", "CN=localhost",
+                "-ext", "san=dns:localhost,ip:127.0.0.1",
+                "-validity", "3650",
+                "-storetype", "PKCS12",
+                "-keystore", config.getKeyStore(),
+                "-storepass", config.getPassword())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+
+        try {
+            int exitCode = builder.start().waitFor();
+            if (exitCode != 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Could not create key store [%s], keytool exited with [%s].",
+                        config.getKeyStore(), exitCode));
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(String.format(
+                    "Could not create key store [%s].", config.getKeyStore()), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException(String.format(
+                    "Could not create key store [%s].", config.getKeyStore()), ex);
+        }
+
+        System.out.printf("Created key store [%s] with a self signed certificate.\n", config.getKeyStore());
+    }
+
+    private SSLEngineOptions createEngineOptions() {
+        if (engine == TlsConfiguration.Engine.OPENSSL) {
+            return new OpenSSLEngineOptions().setSessionCacheEnabled(config.isSessionCache());
+        } else {
+            return new JdkSSLEngineOptions();
+        }
+    }
+
+    /**
+     * Configures resumption on a newly created SSL context, contexts of the 
+     * JDK keep their defaults.
+     *
+     * @param context created by the engine
+     */
+    private void configureSessions(SslContext context) {
+        if (context instanceof ReferenceCountedOpenSslContext) {
+            OpenSslSessionContext sessions = (OpenSslSessionContext) context.sessionContext();
+            
+            // vertx only applies the session cache setting to servers
+            sessions.setSessionCacheEnabled(config.isSessionCache());
+            
+            // netty disables tickets unless keys are set, without them 
+            // sessions resume from the session cache of the server
+            if (config.isSessionTickets()) {
+                sessions.setTicketKeys(new OpenSslSessionTicketKey(
+                        Arrays.copyOfRange(ticketKey, 0, 16),
+                        Arrays.copyOfRange(ticketKey, 16, 32),
+                        Arrays.copyOfRange(ticketKey, 32, 48)));
+            }
+        }
+    }
+
+    /**
+     * Engine of the configured kind whose SSL contexts log every handshake
+     * and apply the resumption settings.
+     */
+    private class MeasuredEngineOptions extends SSLEngineOptions {
+
+        private final SSLEngineOptions engineOptions;
+
+        MeasuredEngineOptions(SSLEngineOptions engineOptions) {
+            super(engineOptions);
+            this.engineOptions = engineOptions;
+        }
+
+        @Override
+        public SSLEngineOptions copy() {
+            return new MeasuredEngineOptions(engineOptions.copy());
+        }
+
+        @Override
+        public SslContextFactory sslContextFactory() {
+
+            SslContextFactory factory = engineOptions.sslContextFactory();
+
+            return new SslContextFactory() {
+
+                @Override
+                public SslContextFactory useAlpn(boolean useAlpn) {
+                    factory.useAlpn(useAlpn);
+                    return this;
+                }
+
+                @Override
+                public SslContextFactory clientAuth(ClientAuth clientAuth) {
+                    factory.clientAuth(clientAuth);
+                    return this;
+                }
+
+                @Override
+                public SslContextFactory forClient(boolean forClient) {
+                    factory.forClient(forClient);
+                    return this;
+                }
+
+                @Override
+                public SslContextFactory keyMananagerFactory(KeyManagerFactory kmf) {
+                    factory.keyMananagerFactory(kmf);
+                    return this;
+                }
+
+                @Override
+                public SslContextFactory trustManagerFactory(TrustManagerFactory tmf) {
+                    factory.trustManagerFactory(tmf);
+                    return this;
+                }
+
+                @Override
+                public SslContextFactory enabledCipherSuites(Set<String> enabledCipherSuites) {
+                    factory.enabledCipherSuites(enabledCipherSuites);
+                    return this;
+                }
+
+                @Override
+                public SslContextFactory applicationProtocols(List<String> applicationProtocols) {
+                    factory.applicationProtocols(applicationProtocols);
+                    return this;
+                }
+
+                @Override
+                public SslContextFactory serverName(String serverName) {
+                    factory.serverName(serverName);
+                    return this;
+                }
+
+                @Override
+                public SslContext create() throws SSLException {
+
+                    SslContext context = factory.create();
+                    configureSessions(context);
+
+                    return new MeasuredSslContext(context);
+                }
+            };
+        }
+    }
+
+    /**
+     * Creates SSL handlers that log their handshake.
+     */
+    private class MeasuredSslContext extends DelegatingSslContext {
+
+        MeasuredSslContext(SslContext context) {
+            super(context);
+        }
+
+        @Override
+        protected void initEngine(SSLEngine engine) {
+            // nothing to configure, vertx configures the engine
+        }
+
+        @Override
+        protected SslHandler newHandler(ByteBufAllocator alloc, boolean startTls, Executor executor) {
+            return new MeasuredSslHandler(this.newEngine(alloc), startTls, executor);
+        }
+
+        @Override
+        protected SslHandler newHandler(ByteBufAllocator alloc, String peerHost, int peerPort,
+                boolean startTls, Executor executor) {
+            return new MeasuredSslHandler(this.newEngine(alloc, peerHost, peerPort), startTls, executor);
+        }
+    }
+
+    /**
+     * Times the handshake from the moment the connection is established, a
+     * connection that could not be established is not a failed handshake.
+     * Only touched on the event loop of its channel.
+     */
+    private class MeasuredSslHandler extends SslHandler {
+
+        private long startTime = -1;
+
+        MeasuredSslHandler(SSLEngine engine, boolean startTls, Executor executor) {
+            super(engine, startTls, executor);
+            this.handshakeFuture().addListener(future -> {
+                if (startTime == -1) {
+                    return;
+                } else if (future.isSuccess()) {
+                    handshakes.log(System.nanoTime() - startTime);
+                    if (!config.isSessionCache()) {
+                        this.engine().getSession().invalidate();
+                    }
+                } else {
+                    handshakes.logError();
+                }
+            });
+        }
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+            // accepted connections are established already
+            if (ctx.channel().isActive()) {
+                this.started();
+            }
+            super.handlerAdded(ctx);
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            this.started();
+            super.channelActive(ctx);
+        }
+
+        private void started() {
+            if (startTime == -1) {
+                startTime = System.nanoTime();
+                handshakes.logStarted();
+            }
+        }
+    }
+
+}
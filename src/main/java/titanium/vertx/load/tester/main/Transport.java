@@ -0,0 +1,98 @@
+/*
+ * Transport.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.kqueue.KQueue;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.net.TCPSSLOptions;
+import titanium.vertx.load.tester.config.TransportConfiguration;
+
+/**
+ * Creates vertx on the configured netty transport and applies the socket
+ * options to client and server options. When a native transport cannot be
+ * loaded vertx falls back to nio and the reason is printed.
+ */
+public class Transport {
+
+    /**
+     * Creates vertx on the configured transport and prints the transport
+     * that was actually loaded.
+     *
+     * @param options for vertx, native transport preference is overwritten
+     * @param config of the transport
+     * @return vertx instance
+     */
+    public static Vertx createVertx(VertxOptions options, TransportConfiguration config) {
+
+        if (config.getType() == TransportConfiguration.Type.IO_URING) {
+            // vertx 4 has no io_uring transport, best we can do is epoll/kqueue
+            System.out.println("Transport [io_uring] is not supported by this vertx version, trying native transport instead.");
+        }
+
+        options.setPreferNativeTransport(config.isNative());
+        Vertx vertx = Vertx.vertx(options);
+        String loaded = getLoadedTransport(vertx);
+
+        if (config.isNative() && !vertx.isNativeTransportEnabled()) {
+            System.out.printf("Transport [%s] is unavailable, falling back to [%s]: %s\n",
+                    config.getType().name().toLowerCase(), loaded,
+                    vertx.unavailableNativeTransportCause());
+        } else {
+            System.out.printf("Transport [%s] loaded.\n", loaded);
+        }
+
+        return vertx;
+    }
+
+    /**
+     * @param vertx instance to check
+     * @return name of the transport vertx is running on
+     */
+    public static String getLoadedTransport(Vertx vertx) {
+        if (!vertx.isNativeTransportEnabled()) {
+            return "nio";
+        } else if (Epoll.isAvailable()) {
+            return "epoll";
+        } else if (KQueue.isAvailable()) {
+            return "kqueue";
+        } else {
+            return "native";
+        }
+    }
+
+    /**
+     * Applies the socket options of the transport configuration.
+     *
+     * @param <T> client or server options
+     * @param options to apply the socket options to
+     * @param config of the transport
+     * @return the options
+     */
+    public static <T extends TCPSSLOptions> T apply(T options, TransportConfiguration config) {
+
+        options.setReusePort(config.isReusePort());
+        options.setTcpNoDelay(config.isTcpNoDelay());
+        options.setTcpQuickAck(config.isTcpQuickAck()); // epoll only, ignored otherwise
+
+        if (config.getSendBufferSize() > 0) {
+            options.setSendBufferSize(config.getSendBufferSize());
+        }
+
+        if (config.getReceiveBufferSize() > 0) {
+            options.setReceiveBufferSize(config.getReceiveBufferSize());
+        }
+
+        return options;
+    }
+
+}
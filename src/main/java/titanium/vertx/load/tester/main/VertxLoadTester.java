@@ -10,10 +10,18 @@
  */
 package titanium.vertx.load.tester.main;
 
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import titanium.vertx.load.tester.config.ClientConfiguration;
+import titanium.vertx.load.tester.config.CoordinatorConfiguration;
+import titanium.vertx.load.tester.config.ScenarioConfiguration;
 import titanium.vertx.load.tester.config.ServerConfiguration;
 import titanium.vertx.load.tester.config.TestConfiguration;
 
@@ -22,11 +30,13 @@ public class VertxLoadTester extends Thread {
     private static VertxLoadTester INSTANCE = null;
 
     /**
-     * First argument must be "client" or "server". The second argument must 
-     * be the path to the configuration file. See README file for expected 
-     * json schema.
+     * First argument must be "client", "server", "coordinator", "agent" or 
+     * "convert". The second argument must be the path to the configuration 
+     * file, for an agent the host and port of the coordinator, and for 
+     * convert the path to a results file followed by "csv" or "json". See 
+     * README file for expected json schema.
      * 
-     * @param args to start client or server
+     * @param args to start client, server, coordinator or agent
      */
     public static void main(String[] args) {
 
@@ -34,8 +44,18 @@ public class VertxLoadTester extends Thread {
             throw new IllegalArgumentException("Zero arguments provided!");
         } else if (args.length < 2) {
             throw new IllegalArgumentException("Two arguments required!");
+        } else if (args[0].equals("coordinator")) {
+            startCoordinator(args[1]);
+            return;
+        } else if (args[0].equals("agent")) {
+            startAgent(args[1]);
+            return;
+        } else if (args[0].equals("convert")) {
+            convert(args[1], args.length > 2 ? args[2] : "csv");
+            return;
         } else if (!args[0].equals("client") && !args[0].equals("server")) {
-            throw new IllegalArgumentException("First argument must be [client] or [server]!");
+            throw new IllegalArgumentException(
+                    "First argument must be [client], [server], [coordinator], [agent] or [convert]!");
         }
 
         int argIndex = 0;
@@ -43,31 +63,85 @@ public class VertxLoadTester extends Thread {
 
         if (client) {
             ClientConfiguration config = TestConfiguration.getClientConfiguration(args[1]);
-            INSTANCE = new VertxLoadTester(Vertx.vertx(), config);
+            VertxOptions options = new VertxOptions()
+                    .setEventLoopPoolSize(config.getEventLoopPoolSize());
+            INSTANCE = new VertxLoadTester(Transport.createVertx(options, config.getTransport()), config);
         } else {
             ServerConfiguration config = TestConfiguration.getServerConfiguration(args[1]);
-            INSTANCE = new VertxLoadTester(Vertx.vertx(), config);
+            VertxOptions options = new VertxOptions()
+                    .setEventLoopPoolSize(config.getEventLoopPoolSize())
+                    .setWorkerPoolSize(config.getWorkerPoolSize());
+            INSTANCE = new VertxLoadTester(Transport.createVertx(options, config.getTransport()), config);
         }
         
         INSTANCE.start();
     }
+    
+    private static void startCoordinator(String pathName) {
+        
+        CoordinatorConfiguration config = TestConfiguration.getCoordinatorConfiguration(pathName);
+        Vertx vertx = Vertx.vertx();
+        Coordinator coordinator = new Coordinator(config);
+        
+        // control + c stops the agents and prints their final report
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> coordinator.stopAndWait(10_000)));
+        
+        coordinator.finished().onComplete(handler -> vertx.close());
+        vertx.deployVerticle(coordinator).onFailure(failure -> {
+            System.out.printf("Coordinator failed to start [%s].\n", failure.getMessage());
+            vertx.close();
+        });
+    }
+    
+    private static void startAgent(String coordinatorAddress) {
+        
+        int separator = coordinatorAddress.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Second argument of an agent must be [host:port] of the coordinator!");
+        }
+        
+        Vertx vertx = Vertx.vertx();
+        Agent agent = new Agent(coordinatorAddress.substring(0, separator), 
+                Integer.parseInt(coordinatorAddress.substring(separator + 1)));
+        vertx.deployVerticle(agent).onFailure(failure -> {
+            System.out.printf("Agent failed to connect [%s].\n", failure.getMessage());
+            vertx.close();
+        });
+    }
+
+    private static void convert(String pathName, String format) {
+        
+        TimeSeriesReader reader = new TimeSeriesReader(pathName);
+        if (format.equals("csv")) {
+            reader.printCsv(System.out);
+        } else if (format.equals("json")) {
+            reader.printJson(System.out);
+        } else {
+            throw new IllegalArgumentException("Third argument of convert must be [csv] or [json]!");
+        }
+    }
 
+    private final Vertx vertx;
     private final Metrics metrics; // used by all clients and server verticles
-    private final List<Client> clientList = new ArrayList<>();
+    private final TimeSeriesWriter resultsWriter; // null if reports are only printed
+    private final MetricsEndpoint metricsEndpoint; // null if not scraped
+    private final ClientConfiguration clientConfig;
     private final Server server;
 
     /**
      * Creates a client load tester.
      *
-     * @param vertx used to create web clients that send http requests
+     * @param vertx used to deploy client verticles that send http requests
      * @param config for the clients
      */
     public VertxLoadTester(Vertx vertx, ClientConfiguration config) {
+        this.vertx = vertx;
         this.metrics = new Metrics(vertx, true);
+        this.clientConfig = config;
         this.server = null;
-        for (int i = 0; i < config.getNumberOfClients(); i++) {
-            clientList.add(new Client(vertx, config, metrics));
-        }
+        this.resultsWriter = createResultsWriter(config.getResultsFile(), "Client", metrics);
+        this.metricsEndpoint = config.getMetricsPort() > 0 
+                ? new MetricsEndpoint(metrics, config.getMetricsHost(), config.getMetricsPort()) : null;
     }
 
     /**
@@ -77,8 +151,22 @@ public class VertxLoadTester extends Thread {
      * @param config for the server
      */
     public VertxLoadTester(Vertx vertx, ServerConfiguration config) {
+        this.vertx = vertx;
         this.metrics = new Metrics(vertx, false);
+        this.clientConfig = null;
         this.server = new Server(vertx, config, metrics);
+        this.resultsWriter = createResultsWriter(config.getResultsFile(), "Server", metrics);
+        this.metricsEndpoint = config.getMetricsPort() > 0 
+                ? new MetricsEndpoint(metrics, config.getMetricsHost(), config.getMetricsPort()) : null;
+    }
+    
+    private static TimeSeriesWriter createResultsWriter(String pathName, String name, Metrics metrics) {
+        if (pathName == null) {
+            return null;
+        }
+        TimeSeriesWriter writer = new TimeSeriesWriter(pathName, name);
+        metrics.setResultsWriter(writer);
+        return writer;
     }
 
     public Metrics getMetrics() {
@@ -87,30 +175,138 @@ public class VertxLoadTester extends Thread {
 
     @Override
     public void run() {
+        
+        // scrapes are served by their own vertx, away from the load
+        if (metricsEndpoint != null) {
+            metricsEndpoint.start();
+        }
 
         // start server
         if (server != null) {
             server.start();
         }
 
-        // start clients
-        for (Client client : clientList) {
-            client.start();
+        // start clients, one verticle per client spread over the event loops
+        if (clientConfig != null) {
+            System.out.printf("Deploying [%s] client verticles.\n", clientConfig.getNumberOfClients());
+            metrics.start();
+            
+            // corpus is indexed once and shared by all clients
+            Feeder feeder = null;
+            if (clientConfig.getFeeder() != null) {
+                feeder = new Feeder(clientConfig.getFeeder());
+                System.out.printf("Feeder loaded [%s] records.\n", feeder.size());
+            }
+            
+            // bodies and headers are loaded once and shared by all clients, a 
+            // mix of scenarios also reports every scenario on its own
+            List<Scenario> scenarios = new ArrayList<>();
+            List<ScenarioConfiguration> scenarioConfigs = clientConfig.getScenarios();
+            for (ScenarioConfiguration scenarioConfig : scenarioConfigs) {
+                scenarios.add(new Scenario(scenarioConfig, scenarioConfigs.size() > 1 
+                        ? metrics.createChild(scenarioConfig.getName()) : null));
+            }
+            
+            // one timeline for all clients, a search replaces it every trial
+            Supplier<LoadProfile> profiles = null;
+            if (clientConfig.getSearch() != null) {
+                ThroughputSearch search = new ThroughputSearch(vertx, clientConfig.getSearch(), 
+                        metrics, this::interrupt);
+                search.start();
+                profiles = search;
+            } else {
+                LoadProfile profile = LoadProfile.create(clientConfig, metrics, System.nanoTime());
+                if (profile != null && !clientConfig.getStages().isEmpty()) {
+                    this.runStages(profile);
+                }
+                profiles = profile == null ? null : () -> profile;
+            }
+            
+            // handshakes and the time to first byte are reported apart from
+            // the requests
+            Tls tls = clientConfig.getTls() == null ? null 
+                    : new Tls(clientConfig.getTls(), metrics.createChild("TLS Handshakes"));
+            Metrics firstByteMetrics = clientConfig.isStreamResponses() 
+                    || clientConfig.getEngine() == ClientConfiguration.Engine.CORE
+                    ? metrics.createChild("Time To First Byte") : null;
+            
+            Supplier<LoadProfile> clientProfiles = profiles;
+            Feeder clientFeeder = feeder;
+            AtomicInteger clientIndex = new AtomicInteger(0);
+            vertx.deployVerticle(() -> new Client(clientConfig, metrics, scenarios, clientFeeder, 
+                    clientIndex.getAndIncrement(), clientProfiles, tls, firstByteMetrics),
+                    new DeploymentOptions().setInstances(clientConfig.getNumberOfClients()),
+                    handler -> {
+                        if (handler.failed()) {
+                            // a client that failed to start stops the test
+                            handler.cause().printStackTrace();
+                            this.interrupt();
+                        }
+                    });
         }
     }
     
+    /**
+     * Tags the metrics with the running stage and prints the summary of every 
+     * stage once it ended. Clients stop after the last stage.
+     * 
+     * @param profile with stages
+     */
+    private void runStages(LoadProfile profile) {
+        
+        for (int i = 0; i < profile.getStageCount(); i++) {
+            
+            final int stage = i;
+            final String name = profile.getStage(stage).getName();
+            
+            this.setTimer(profile.getStageStartTime(stage), handler -> {
+                System.out.printf("Stage [%s] started.\n", name);
+                metrics.setStage(name);
+            });
+            
+            // wait a sec after the stage ends for its transactions to complete
+            this.setTimer(profile.getStageEndTime(stage) + 1_000_000_000L, handler -> {
+                profile.getStageMetrics(stage).printSummary(
+                        profile.getStageEndTime(stage) - profile.getStageStartTime(stage));
+                
+                if (stage == profile.getStageCount() - 1) {
+                    // reprint every stage so the summaries can be compared
+                    System.out.println("Load profile finished.");
+                    for (int j = 0; j < profile.getStageCount(); j++) {
+                        profile.getStageMetrics(j).printSummary(
+                                profile.getStageEndTime(j) - profile.getStageStartTime(j));
+                    }
+                    this.interrupt();
+                }
+            });
+        }
+    }
+    
+    private void setTimer(long time, Handler<Long> handler) {
+        long delayMillis = TimeUnit.NANOSECONDS.toMillis(time - System.nanoTime());
+        vertx.setTimer(Math.max(1, delayMillis), handler);
+    }
+    
     @Override
     public void interrupt() {
 
-        // stop clients
-        for (Client client : clientList) {
-            client.interrupt();
+        // stop clients, each client waits a sec for its transactions to complete
+        if (clientConfig != null) {
+            vertx.close();
         }
 
         // stop server
         if (server != null) {
             server.stop();
         }
+        
+        if (resultsWriter != null) {
+            resultsWriter.close();
+        }
+        
+        if (metricsEndpoint != null) {
+            metricsEndpoint.stop();
+        }
     }
 
 }
@@ -10,7 +10,9 @@
  */
 package titanium.vertx.load.tester.config;
 
+import io.vertx.core.VertxOptions;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import static org.testng.Assert.*;
@@ -34,6 +36,23 @@ public class ClientConfigurationNGTest {
         assertEquals(config.getHeaders().size(), 0);
         assertNull(config.getBody());
         assertEquals(config.getExpectedStatusCode(), 200);
+        assertEquals(config.getRequestsPerSecond(), 0);
+        assertEquals(config.getEventLoopPoolSize(), VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE);
+        assertNull(config.getBodyFile());
+        assertNull(config.getFeeder());
+        assertEquals(config.getScenarios().size(), 1);
+        assertEquals(config.getScenarios().get(0).getName(), "GET /");
+        assertEquals(config.getScenarios().get(0).getWeight(), 1);
+        assertTrue(config.getStages().isEmpty());
+        assertTrue(config.isStopOnError());
+        assertNull(config.getSearch());
+        assertNull(config.getResultsFile());
+        assertEquals(config.getProtocol(), HttpVersion.HTTP_2);
+        assertTrue(config.isKeepAlive());
+        assertEquals(config.getPipeliningLimit(), 1);
+        assertEquals(config.getStreamsPerConnection(), config.getMultiplexingLimit());
+        assertFalse(config.isStreamResponses());
+        assertEquals(config.getEngine(), ClientConfiguration.Engine.WEBCLIENT);
     }
 
     @Test
@@ -49,6 +68,18 @@ public class ClientConfigurationNGTest {
         json.put("path", "/test/path");
         json.put("body", "{}");
         json.put("expectedStatusCode", 201);
+        json.put("requestsPerSecond", 50_000);
+        json.put("eventLoopPoolSize", 4);
+        json.put("bodyFile", "/tmp/upload.bin");
+        json.put("stopOnError", false);
+        json.put("resultsFile", "/tmp/client.bin");
+        json.put("search", new JsonObject()
+                .put("maxP99Millis", 25.0)
+                .put("maxRequestsPerSecond", 100_000)
+                .put("windowSeconds", 60));
+        json.put("feeder", new JsonObject()
+                .put("file", "/tmp/corpus.csv")
+                .put("order", "partitioned"));
 
         // create header one
         JsonObject header1 = new JsonObject();
@@ -80,6 +111,20 @@ public class ClientConfigurationNGTest {
         assertEquals(config.getHeaders().size(), 2);
         assertEquals(config.getBody(), "{}");
         assertEquals(config.getExpectedStatusCode(), 201);
+        assertEquals(config.getRequestsPerSecond(), 50_000);
+        assertEquals(config.getEventLoopPoolSize(), 4);
+        assertEquals(config.getBodyFile(), "/tmp/upload.bin");
+        assertEquals(config.getFeeder().getFile(), "/tmp/corpus.csv");
+        assertEquals(config.getFeeder().getFormat(), FeederConfiguration.Format.CSV);
+        assertEquals(config.getFeeder().getOrder(), FeederConfiguration.Order.PARTITIONED);
+        assertFalse(config.isStopOnError());
+        assertEquals(config.getResultsFile(), "/tmp/client.bin");
+        assertEquals(config.getSearch().getMaxP99Millis(), 25.0);
+        assertEquals(config.getSearch().getMaxErrorRate(), 0.001);
+        assertEquals(config.getSearch().getStartRequestsPerSecond(), 1_000);
+        assertEquals(config.getSearch().getMaxRequestsPerSecond(), 100_000);
+        assertEquals(config.getSearch().getWarmupSeconds(), 5);
+        assertEquals(config.getSearch().getWindowSeconds(), 60);
 
         // assert header one
         assertTrue(config.getHeaders().contains("test-header"));
@@ -90,4 +135,142 @@ public class ClientConfigurationNGTest {
         assertEquals(config.getHeaders().get("content-type"), "application/json");
     }
 
+    @Test
+    public void scenariosTest() {
+
+        JsonObject json = new JsonObject();
+        json.put("path", "/auth");
+        json.put("body", "{}");
+        json.put("headers", new JsonArray().add(new JsonObject()
+                .put("name", "authorization")
+                .put("value", "token")));
+
+        // scenario one only sets its weight
+        JsonObject scenario1 = new JsonObject();
+        scenario1.put("weight", 70);
+
+        // scenario two overrides the request
+        JsonObject scenario2 = new JsonObject();
+        scenario2.put("name", "create");
+        scenario2.put("weight", 30);
+        scenario2.put("httpMethod", "POST");
+        scenario2.put("path", "/users");
+        scenario2.put("bodyFile", "/tmp/user.json");
+        scenario2.put("expectedStatusCode", 201);
+        scenario2.put("headers", new JsonArray().add(new JsonObject()
+                .put("name", "content-type")
+                .put("value", "application/json")));
+
+        json.put("scenarios", new JsonArray().add(scenario1).add(scenario2));
+
+        ClientConfiguration config = new ClientConfiguration(json);
+
+        assertEquals(config.getScenarios().size(), 2);
+
+        // assert scenario one, everything is taken from the client
+        ScenarioConfiguration first = config.getScenarios().get(0);
+        assertEquals(first.getName(), "GET /auth");
+        assertEquals(first.getWeight(), 70);
+        assertEquals(first.getHttpMethod(), HttpMethod.GET);
+        assertEquals(first.getPath(), "/auth");
+        assertEquals(first.getBody(), "{}");
+        assertNull(first.getBodyFile());
+        assertEquals(first.getExpectedStatusCode(), 200);
+        assertEquals(first.getHeaders().size(), 1);
+
+        // assert scenario two, headers are added to the client headers
+        ScenarioConfiguration second = config.getScenarios().get(1);
+        assertEquals(second.getName(), "create");
+        assertEquals(second.getWeight(), 30);
+        assertEquals(second.getHttpMethod(), HttpMethod.POST);
+        assertEquals(second.getPath(), "/users");
+        assertNull(second.getBody());
+        assertEquals(second.getBodyFile(), "/tmp/user.json");
+        assertEquals(second.getExpectedStatusCode(), 201);
+        assertEquals(second.getHeaders().get("authorization"), "token");
+        assertEquals(second.getHeaders().get("content-type"), "application/json");
+    }
+
+    @Test
+    public void stagesTest() {
+
+        JsonObject json = new JsonObject();
+        json.put("stages", new JsonArray()
+                .add(new JsonObject()
+                        .put("name", "warmup")
+                        .put("durationSeconds", 30)
+                        .put("rampSeconds", 30)
+                        .put("requestsPerSecond", 1_000))
+                .add(new JsonObject()
+                        .put("durationSeconds", 600)
+                        .put("requestsPerSecond", 5_000)));
+
+        ClientConfiguration config = new ClientConfiguration(json);
+
+        assertEquals(config.getStages().size(), 2);
+
+        // assert stage one
+        StageConfiguration first = config.getStages().get(0);
+        assertEquals(first.getName(), "warmup");
+        assertEquals(first.getDurationSeconds(), 30);
+        assertEquals(first.getRampSeconds(), 30);
+        assertEquals(first.getRequestsPerSecond(), 1_000);
+        assertEquals(first.getConcurrency(), -1);
+        assertTrue(first.isOpenLoop());
+
+        // assert stage two, named by its position
+        StageConfiguration second = config.getStages().get(1);
+        assertEquals(second.getName(), "stage-2");
+        assertEquals(second.getRampSeconds(), 0);
+        assertEquals(second.getRequestsPerSecond(), 5_000);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void mixedStagesTest() {
+
+        JsonObject json = new JsonObject();
+        json.put("stages", new JsonArray()
+                .add(new JsonObject().put("durationSeconds", 10).put("requestsPerSecond", 100))
+                .add(new JsonObject().put("durationSeconds", 10).put("concurrency", 10)));
+
+        new ClientConfiguration(json);
+    }
+
+    @Test
+    public void protocolTest() {
+
+        JsonObject json = new JsonObject();
+        json.put("protocol", "HTTP_1_1");
+        json.put("pipeliningLimit", 8);
+        json.put("streamResponses", true);
+        json.put("engine", "core");
+
+        ClientConfiguration config = new ClientConfiguration(json);
+
+        assertEquals(config.getProtocol(), HttpVersion.HTTP_1_1);
+        assertTrue(config.isKeepAlive());
+        assertEquals(config.getPipeliningLimit(), 8);
+        assertEquals(config.getStreamsPerConnection(), 8);
+        assertTrue(config.isStreamResponses());
+        assertEquals(config.getEngine(), ClientConfiguration.Engine.CORE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unsupportedProtocolTest() {
+        new ClientConfiguration(new JsonObject().put("protocol", "HTTP_1_0"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unsupportedEngineTest() {
+        new ClientConfiguration(new JsonObject().put("engine", "okhttp"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void pipeliningWithoutKeepAliveTest() {
+        new ClientConfiguration(new JsonObject()
+                .put("protocol", "HTTP_1_1")
+                .put("keepAlive", false)
+                .put("pipeliningLimit", 4));
+    }
+
 }
@@ -10,6 +10,8 @@
  */
 package titanium.vertx.load.tester.config;
 
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import static org.testng.Assert.*;
@@ -31,6 +33,17 @@ public class ServerConfigurationNGTest {
         assertEquals(config.getMultiplexingLimit(), 1_000);
         assertEquals(config.getBlockingMillis(), 0);
         assertFalse(config.isExecuteBlocking());
+        assertEquals(config.getVerticles(), VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE);
+        assertEquals(config.getEventLoopPoolSize(), VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE);
+        assertEquals(config.getWorkerPoolSize(), VertxOptions.DEFAULT_WORKER_POOL_SIZE);
+        assertNull(config.getBodyFile());
+        assertNull(config.getResultsFile());
+        assertEquals(config.getProtocol(), HttpVersion.HTTP_2);
+        assertTrue(config.isKeepAlive());
+        assertEquals(config.getBlockingExecutor(), ServerConfiguration.BlockingExecutor.PLATFORM);
+        assertEquals(config.getBlockingPoolSize(), 20);
+        assertNull(config.getDelay());
+        assertNull(config.getWork());
     }
 
     @Test
@@ -44,6 +57,17 @@ public class ServerConfigurationNGTest {
         json.put("multiplexingLimit", 2_000);
         json.put("blockingMillis", 100_000);
         json.put("executeBlocking", true);
+        json.put("verticles", 3);
+        json.put("eventLoopPoolSize", 4);
+        json.put("workerPoolSize", 40);
+        json.put("bodyFile", "/tmp/body.json");
+        json.put("resultsFile", "/tmp/server.bin");
+        json.put("protocol", "HTTP_1_1");
+        json.put("keepAlive", false);
+        json.put("blockingExecutor", "virtual");
+        json.put("blockingPoolSize", 200);
+        json.put("work", new JsonObject().put("micros", 250));
+        json.put("delay", new JsonObject().put("distribution", "uniform").put("minMillis", 0.5).put("maxMillis", 2));
 
         // create header one
         JsonObject header1 = new JsonObject();
@@ -73,6 +97,20 @@ public class ServerConfigurationNGTest {
         assertEquals(config.getMultiplexingLimit(), 2_000);
         assertEquals(config.getBlockingMillis(), 100_000);
         assertTrue(config.isExecuteBlocking());
+        assertEquals(config.getVerticles(), 3);
+        assertEquals(config.getEventLoopPoolSize(), 4);
+        assertEquals(config.getWorkerPoolSize(), 40);
+        assertEquals(config.getBodyFile(), "/tmp/body.json");
+        assertEquals(config.getResultsFile(), "/tmp/server.bin");
+        assertEquals(config.getProtocol(), HttpVersion.HTTP_1_1);
+        assertFalse(config.isKeepAlive());
+        assertEquals(config.getBlockingExecutor(), ServerConfiguration.BlockingExecutor.VIRTUAL);
+        assertEquals(config.getBlockingPoolSize(), 200);
+        assertEquals(config.getDelay().getDistribution(), DelayConfiguration.Distribution.UNIFORM);
+        assertEquals(config.getDelay().getMinMillis(), 0.5);
+        assertEquals(config.getDelay().getMaxMillis(), 2.0);
+        assertEquals(config.getWork().getMicros(), 250);
+        assertEquals(config.getWork().getIterations(), 0);
 
         // assert header one
         assertTrue(config.getHeaders().contains("test-header"));
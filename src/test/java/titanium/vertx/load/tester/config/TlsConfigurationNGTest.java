@@ -0,0 +1,88 @@
+/*
+ * TlsConfigurationNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonObject;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class TlsConfigurationNGTest {
+
+    @Test
+    public void defaultConfigTest() {
+
+        JsonObject json = new JsonObject();
+        TlsConfiguration config = new TlsConfiguration(json);
+
+        assertEquals(config.getEngine(), TlsConfiguration.Engine.JDK);
+        assertEquals(config.getKeyStore(), "vertx-load-tester.p12");
+        assertNull(config.getTrustStore());
+        assertEquals(config.getPassword(), "vertx-load-tester");
+        assertTrue(config.isSessionCache());
+        assertTrue(config.isSessionTickets());
+    }
+
+    @Test
+    public void configTest() {
+
+        JsonObject json = new JsonObject();
+        json.put("engine", "openssl");
+        json.put("keyStore", "server.p12");
+        json.put("trustStore", "client.p12");
+        json.put("password", "secret");
+        json.put("sessionCache", false);
+        json.put("sessionTickets", false);
+
+        TlsConfiguration config = new TlsConfiguration(json);
+
+        assertEquals(config.getEngine(), TlsConfiguration.Engine.OPENSSL);
+        assertEquals(config.getKeyStore(), "server.p12");
+        assertEquals(config.getTrustStore(), "client.p12");
+        assertEquals(config.getPassword(), "secret");
+        assertFalse(config.isSessionCache());
+        assertFalse(config.isSessionTickets());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unsupportedEngineTest() {
+        new TlsConfiguration(new JsonObject().put("engine", "conscrypt"));
+    }
+
+    @Test
+    public void jdkSessionsTest() {
+
+        JsonObject[] invalid = {
+            new JsonObject().put("sessionCache", false),
+            new JsonObject().put("sessionTickets", false)
+        };
+
+        for (JsonObject json : invalid) {
+            try {
+                new TlsConfiguration(json);
+                fail("Accepted " + json);
+            } catch (IllegalArgumentException ex) {
+                // no switch on the JDK engine without process wide properties
+            }
+        }
+    }
+
+    @Test
+    public void clientAndServerTest() {
+
+        JsonObject json = new JsonObject().put("tls", new JsonObject().put("engine", "openssl"));
+
+        assertEquals(new ClientConfiguration(json).getTls().getEngine(), TlsConfiguration.Engine.OPENSSL);
+        assertEquals(new ServerConfiguration(json).getTls().getEngine(), TlsConfiguration.Engine.OPENSSL);
+        assertNull(new ClientConfiguration(new JsonObject()).getTls());
+        assertNull(new ServerConfiguration(new JsonObject()).getTls());
+    }
+
+}
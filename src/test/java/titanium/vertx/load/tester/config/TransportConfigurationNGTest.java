@@ -0,0 +1,66 @@
+/*
+ * TransportConfigurationNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.config;
+
+import io.vertx.core.json.JsonObject;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class TransportConfigurationNGTest {
+
+    @Test
+    public void defaultConfigTest() {
+
+        JsonObject json = new JsonObject();
+        TransportConfiguration config = new TransportConfiguration(json);
+
+        assertEquals(config.getType(), TransportConfiguration.Type.NIO);
+        assertFalse(config.isNative());
+        assertFalse(config.isReusePort());
+        assertTrue(config.isTcpNoDelay());
+        assertFalse(config.isTcpQuickAck());
+        assertEquals(config.getSendBufferSize(), -1);
+        assertEquals(config.getReceiveBufferSize(), -1);
+    }
+
+    @Test
+    public void configTest() {
+
+        JsonObject json = new JsonObject();
+        json.put("type", "io_uring");
+        json.put("reusePort", true);
+        json.put("tcpNoDelay", false);
+        json.put("tcpQuickAck", true);
+        json.put("sendBufferSize", 65_536);
+        json.put("receiveBufferSize", 131_072);
+
+        TransportConfiguration config = new TransportConfiguration(json);
+
+        assertEquals(config.getType(), TransportConfiguration.Type.IO_URING);
+        assertTrue(config.isNative());
+        assertTrue(config.isReusePort());
+        assertFalse(config.isTcpNoDelay());
+        assertTrue(config.isTcpQuickAck());
+        assertEquals(config.getSendBufferSize(), 65_536);
+        assertEquals(config.getReceiveBufferSize(), 131_072);
+    }
+
+    @Test
+    public void clientAndServerTest() {
+
+        JsonObject json = new JsonObject().put("transport", new JsonObject().put("type", "epoll"));
+
+        assertEquals(new ClientConfiguration(json).getTransport().getType(), TransportConfiguration.Type.EPOLL);
+        assertEquals(new ServerConfiguration(json).getTransport().getType(), TransportConfiguration.Type.EPOLL);
+        assertEquals(new ClientConfiguration(new JsonObject()).getTransport().getType(), TransportConfiguration.Type.NIO);
+    }
+
+}
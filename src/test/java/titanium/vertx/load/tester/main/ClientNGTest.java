@@ -0,0 +1,90 @@
+/*
+ * ClientNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import static org.testng.Assert.*;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import titanium.vertx.load.tester.config.ClientConfiguration;
+import titanium.vertx.load.tester.config.ServerConfiguration;
+
+public class ClientNGTest {
+
+    private static final int PORT = 8098;
+    private static final String BODY = "hello";
+
+    @DataProvider
+    public Object[][] engineProvider() {
+        return new Object[][]{
+            {"webclient", "HTTP_2", false},
+            {"webclient", "HTTP_1_1", true},
+            {"core", "HTTP_2", true},
+            {"core", "HTTP_1_1", true}
+        };
+    }
+
+    @Test(dataProvider = "engineProvider", timeOut = 60000)
+    public void engineTest(String engine, String protocol, boolean firstByte) throws Exception {
+
+        Vertx serverVertx = Vertx.vertx();
+        Vertx clientVertx = Vertx.vertx();
+        try {
+            Server server = new Server(serverVertx, new ServerConfiguration(new JsonObject()
+                    .put("port", PORT)
+                    .put("verticles", 1)
+                    .put("body", BODY)), new Metrics(serverVertx, false));
+            server.start();
+            TestServers.awaitListening(PORT);
+
+            ClientConfiguration config = new ClientConfiguration(new JsonObject()
+                    .put("port", PORT)
+                    .put("protocol", protocol)
+                    .put("multiplexingLimit", 10)
+                    .put("engine", engine)
+                    .put("streamResponses", firstByte)
+                    .put("httpMethod", "POST")
+                    .put("body", "{}")
+                    .put("headers", new JsonArray()
+                            .add(new JsonObject().put("name", "x-test").put("value", "1"))));
+            Metrics metrics = new Metrics(clientVertx, true);
+            Metrics firstByteMetrics = firstByte ? new Metrics(clientVertx, "First Byte") : null;
+            Scenario scenario = new Scenario(config.getScenarios().get(0), null);
+
+            clientVertx.deployVerticle(() -> new Client(config, metrics, Collections.singletonList(scenario), 
+                    null, 0, null, null, firstByteMetrics), new DeploymentOptions());
+            while (metrics.snapshot().getTransactions() < 1_000) {
+                Thread.sleep(10);
+            }
+            clientVertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+            // every response was counted, the body of each and its first byte
+            Recorder requests = metrics.snapshot();
+            assertEquals(requests.getErrors(), 0);
+            assertEquals(requests.getBytesReceived(), requests.getTransactions() * BODY.length());
+            assertEquals(requests.getBytesSent(), requests.getTransactions() * 2);
+            if (firstByte) {
+                Recorder firstBytes = firstByteMetrics.snapshot();
+                assertEquals(firstBytes.getTransactions(), requests.getTransactions());
+                assertTrue(firstBytes.getLatencyNanos() <= requests.getLatencyNanos());
+            }
+        } finally {
+            clientVertx.close();
+            serverVertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * ConnectionStatsNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import java.util.concurrent.TimeUnit;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+import titanium.vertx.load.tester.config.ServerConfiguration;
+
+public class ConnectionStatsNGTest {
+
+    private static final int PORT = 8099;
+
+    @Test(timeOut = 30000)
+    public void resetTest() throws Exception {
+
+        Vertx serverVertx = Vertx.vertx();
+        Vertx clientVertx = Vertx.vertx();
+        try {
+            // responses are held long enough to reset their streams first
+            Metrics metrics = new Metrics(serverVertx, false);
+            Server server = new Server(serverVertx, new ServerConfiguration(new JsonObject()
+                    .put("port", PORT)
+                    .put("verticles", 1)
+                    .put("delay", new JsonObject().put("millis", 500))), metrics);
+            server.start();
+            TestServers.awaitListening(PORT);
+
+            HttpClient client = clientVertx.createHttpClient(new HttpClientOptions()
+                    .setProtocolVersion(HttpVersion.HTTP_2)
+                    .setHttp2ClearTextUpgrade(false));
+            HttpClientRequest request = client.request(HttpMethod.GET, PORT, "localhost", "/")
+                    .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            request.end();
+
+            ConnectionStats stats = this.awaitStreams(metrics, 1);
+            request.reset();
+
+            // the reset stream is closed and counted as error, the connection stays open
+            while (metrics.getTotalErrors() == 0) {
+                Thread.sleep(10);
+            }
+            assertEquals(stats.getStreams(), 0);
+            assertEquals(stats.getTransactions(), 1);
+            assertFalse(stats.isClosed());
+
+            // a closed connection has no open streams
+            client.request(HttpMethod.GET, PORT, "localhost", "/")
+                    .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).end();
+            this.awaitStreams(metrics, 1);
+            client.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            while (!stats.isClosed()) {
+                Thread.sleep(10);
+            }
+            assertEquals(stats.getStreams(), 0);
+        } finally {
+            clientVertx.close();
+            serverVertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private ConnectionStats awaitStreams(Metrics metrics, int streams) throws InterruptedException {
+        while (true) {
+            for (ConnectionStats stats : metrics.getConnections()) {
+                if (stats.getStreams() == streams) {
+                    return stats;
+                }
+            }
+            Thread.sleep(10);
+        }
+    }
+
+}
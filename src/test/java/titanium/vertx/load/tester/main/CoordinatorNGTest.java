@@ -0,0 +1,123 @@
+/*
+ * CoordinatorNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+import titanium.vertx.load.tester.config.CoordinatorConfiguration;
+import titanium.vertx.load.tester.config.ServerConfiguration;
+
+public class CoordinatorNGTest {
+
+    @Test
+    public void shareOfTest() {
+
+        JsonObject client = new JsonObject()
+                .put("requestsPerSecond", 1_001)
+                .put("numberOfClients", 4)
+                .put("stages", new JsonArray()
+                        .add(new JsonObject().put("durationSeconds", 10).put("requestsPerSecond", 5))
+                        .add(new JsonObject().put("durationSeconds", 10).put("concurrency", 2)));
+
+        long requestsPerSecond = 0;
+        long stageRequestsPerSecond = 0;
+        long concurrency = 0;
+        long numberOfClients = 0;
+        for (int agent = 0; agent < 3; agent++) {
+            JsonObject share = Coordinator.shareOf(client, agent, 3);
+            requestsPerSecond = requestsPerSecond + share.getLong("requestsPerSecond");
+            stageRequestsPerSecond = stageRequestsPerSecond
+                    + share.getJsonArray("stages").getJsonObject(0).getLong("requestsPerSecond");
+            concurrency = concurrency + share.getJsonArray("stages").getJsonObject(1).getLong("concurrency");
+            numberOfClients = numberOfClients + share.getLong("numberOfClients");
+        }
+
+        // shares add up, lower agents get the remainder
+        assertEquals(requestsPerSecond, 1_001);
+        assertEquals(stageRequestsPerSecond, 5);
+        assertEquals(concurrency, 2);
+        assertEquals(numberOfClients, 4);
+        assertEquals(Coordinator.shareOf(client, 0, 3).getLong("requestsPerSecond").longValue(), 334);
+        assertEquals(Coordinator.shareOf(client, 2, 3).getLong("requestsPerSecond").longValue(), 333);
+        assertEquals(client.getLong("requestsPerSecond").longValue(), 1_001);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rateBelowAgentsTest() {
+        new CoordinatorConfiguration("localhost", 7071, 3, 1_000, new JsonObject().put("requestsPerSecond", 2));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void clientsBelowAgentsTest() {
+        new CoordinatorConfiguration("localhost", 7071, 2, 1_000, new JsonObject());
+    }
+
+    /**
+     * Runs two agent processes on loopback and checks that the coordinator
+     * merged all of their requests.
+     */
+    @Test(timeOut = 120000)
+    public void agentsTest() throws Exception {
+
+        VertxLoadTester server = new VertxLoadTester(Vertx.vertx(), new ServerConfiguration(
+                "localhost", 8091, 200, MultiMap.caseInsensitiveMultiMap(), null, 1, 1_000, 0, false));
+        server.start();
+
+        JsonObject client = new JsonObject()
+                .put("port", 8091)
+                .put("path", "/")
+                .put("httpMethod", "GET")
+                .put("numberOfClients", 2)
+                .put("stages", new JsonArray()
+                        .add(new JsonObject().put("durationSeconds", 3).put("requestsPerSecond", 200)));
+        Vertx vertx = Vertx.vertx();
+        Coordinator coordinator = new Coordinator(new CoordinatorConfiguration("localhost", 7071, 2, 1_000, client));
+        vertx.deployVerticle(coordinator).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> agents = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                agents.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        VertxLoadTester.class.getName(), "agent", "localhost:7071")
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start());
+            }
+
+            coordinator.finished().toCompletionStage().toCompletableFuture().get(60, TimeUnit.SECONDS);
+
+            // 3 seconds at 200 requests per second, split over both agents
+            assertEquals(coordinator.getMetrics().getTotalTransactions(), 600);
+            assertEquals(coordinator.getMetrics().getTotalErrors(), 0);
+            assertEquals(coordinator.getMetrics().getTotalHistogram().getTotalCount(), 600);
+
+            for (Process agent : agents) {
+                assertTrue(agent.waitFor(10, TimeUnit.SECONDS), "Agent did not exit.");
+            }
+        } finally {
+            for (Process agent : agents) {
+                agent.destroyForcibly();
+            }
+            vertx.close();
+            server.interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * CpuKernelNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.json.JsonObject;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+import titanium.vertx.load.tester.config.WorkConfiguration;
+
+public class CpuKernelNGTest {
+
+    @Test
+    public void iterationsTest() {
+
+        CpuKernel kernel = new CpuKernel(new WorkConfiguration(0, 10));
+        assertEquals(kernel.getIterations(), 10);
+
+        // the same seed hashes to the same digest, another seed does not
+        kernel.run(42);
+        long digest = kernel.lastDigest();
+        kernel.run(43);
+        assertNotEquals(kernel.lastDigest(), digest);
+        kernel.run(42);
+        assertEquals(kernel.lastDigest(), digest);
+
+        // every iteration counts
+        new CpuKernel(new WorkConfiguration(0, 11)).run(42);
+        assertNotEquals(kernel.lastDigest(), digest);
+    }
+
+    @Test
+    public void calibrationTest() {
+
+        CpuKernel kernel = new CpuKernel(new WorkConfiguration(1_000, 0));
+        assertTrue(kernel.getIterations() > 1);
+
+        // order of magnitude only, calibration and run may share the core
+        // with other tests
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            kernel.run(i);
+        }
+        long micros = (System.nanoTime() - start) / 1_000 / 100;
+        assertTrue(micros >= 100, "micros " + micros);
+        assertTrue(micros < 10_000, "micros " + micros);
+    }
+
+    @Test
+    public void invalidTest() {
+
+        JsonObject[] invalid = {
+            new JsonObject(),
+            new JsonObject().put("micros", 100).put("iterations", 100),
+            new JsonObject().put("micros", -1)
+        };
+
+        for (JsonObject json : invalid) {
+            try {
+                new WorkConfiguration(json);
+                fail("Accepted " + json);
+            } catch (IllegalArgumentException ex) {
+                // expected
+            }
+        }
+    }
+
+}
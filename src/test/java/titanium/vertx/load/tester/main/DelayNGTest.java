@@ -0,0 +1,183 @@
+/*
+ * DelayNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+import titanium.vertx.load.tester.config.DelayConfiguration;
+
+public class DelayNGTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    public void fixedTest() {
+
+        Delay delay = new Delay(new DelayConfiguration(new JsonObject().put("millis", 0.25)));
+
+        // sub millisecond delays keep their fraction
+        assertEquals(delay.nextNanos(), 250_000);
+        assertEquals(delay.nextNanos(), 250_000);
+    }
+
+    @Test
+    public void scheduleTest() throws Exception {
+
+        Vertx vertx = Vertx.vertx();
+        try {
+            Delay delay = new Delay(new DelayConfiguration(new JsonObject().put("millis", 0.25)));
+            Context context = vertx.getOrCreateContext();
+            CompletableFuture<Long> elapsed = new CompletableFuture<>();
+            context.runOnContext(start -> {
+                long startTime = System.nanoTime();
+                delay.schedule(context, handler -> {
+                    if (Vertx.currentContext() == context) {
+                        elapsed.complete(System.nanoTime() - startTime);
+                    } else {
+                        elapsed.completeExceptionally(new IllegalStateException("Wrong context."));
+                    }
+                });
+            });
+
+            // runs on the context once the delay has passed
+            assertTrue(elapsed.get(10, TimeUnit.SECONDS) >= 250_000);
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void uniformTest() {
+
+        long[] delays = sample(new JsonObject()
+                .put("distribution", "uniform")
+                .put("minMillis", 1)
+                .put("maxMillis", 3));
+
+        assertTrue(delays[0] >= 1_000_000);
+        assertTrue(delays[SAMPLES - 1] <= 3_000_000);
+        assertEquals(mean(delays), 2_000_000, 20_000);
+    }
+
+    @Test
+    public void normalTest() {
+
+        long[] delays = sample(new JsonObject()
+                .put("distribution", "normal")
+                .put("meanMillis", 10)
+                .put("stdDevMillis", 2));
+
+        assertEquals(mean(delays), 10_000_000, 50_000);
+        assertEquals(stdDev(delays), 2_000_000, 50_000);
+
+        // delays below zero are cut off
+        delays = sample(new JsonObject()
+                .put("distribution", "normal")
+                .put("meanMillis", 1)
+                .put("stdDevMillis", 10));
+        assertEquals(delays[0], 0);
+    }
+
+    @Test
+    public void logNormalTest() {
+
+        long[] delays = sample(new JsonObject()
+                .put("distribution", "lognormal")
+                .put("meanMillis", 5)
+                .put("stdDevMillis", 5));
+
+        // mean and deviation are those of the delay, skewed to the right
+        assertEquals(mean(delays), 5_000_000, 150_000);
+        assertEquals(stdDev(delays), 5_000_000, 500_000);
+        assertTrue(delays[SAMPLES / 2] < 5_000_000);
+        assertTrue(delays[0] > 0);
+    }
+
+    @Test
+    public void empiricalTest() {
+
+        long[] delays = sample(new JsonObject()
+                .put("distribution", "empirical")
+                .put("percentiles", new JsonArray()
+                        .add(new JsonObject().put("percentile", 10).put("millis", 1))
+                        .add(new JsonObject().put("percentile", 50).put("millis", 2))
+                        .add(new JsonObject().put("percentile", 90).put("millis", 10))
+                        .add(new JsonObject().put("percentile", 99).put("millis", 50))));
+
+        // a tenth at the first percentile, interpolated in between, the last 
+        // percent at the last percentile
+        assertEquals(delays[SAMPLES / 20], 1_000_000);
+        assertEquals(delays[SAMPLES * 3 / 10], 1_500_000, 20_000);
+        assertEquals(delays[SAMPLES / 2], 2_000_000, 20_000);
+        assertEquals(delays[SAMPLES * 7 / 10], 6_000_000, 100_000);
+        assertEquals(delays[SAMPLES * 95 / 100], 32_222_222, 500_000);
+        assertEquals(delays[SAMPLES - 1], 50_000_000);
+    }
+
+    @Test
+    public void invalidTest() {
+
+        JsonArray descending = new JsonArray()
+                .add(new JsonObject().put("percentile", 90).put("millis", 10))
+                .add(new JsonObject().put("percentile", 50).put("millis", 2));
+
+        JsonObject[] invalid = {
+            new JsonObject().put("distribution", "poisson"),
+            new JsonObject().put("millis", -1),
+            new JsonObject().put("distribution", "uniform").put("minMillis", 2).put("maxMillis", 1),
+            new JsonObject().put("distribution", "normal").put("stdDevMillis", 1),
+            new JsonObject().put("distribution", "lognormal").put("meanMillis", 1).put("stdDevMillis", -1),
+            new JsonObject().put("distribution", "empirical"),
+            new JsonObject().put("distribution", "empirical").put("percentiles", descending)
+        };
+
+        for (JsonObject json : invalid) {
+            try {
+                new DelayConfiguration(json);
+                fail("Accepted " + json);
+            } catch (IllegalArgumentException ex) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * @return sorted delays drawn with a fixed seed
+     */
+    private static long[] sample(JsonObject json) {
+        Delay delay = new Delay(new DelayConfiguration(json));
+        Random random = new Random(42);
+        long[] delays = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            delays[i] = delay.nextNanos(random);
+        }
+        Arrays.sort(delays);
+        return delays;
+    }
+
+    private static double mean(long[] delays) {
+        return Arrays.stream(delays).average().getAsDouble();
+    }
+
+    private static double stdDev(long[] delays) {
+        double mean = mean(delays);
+        return Math.sqrt(Arrays.stream(delays).mapToDouble(d -> (d - mean) * (d - mean)).sum() / delays.length);
+    }
+
+}
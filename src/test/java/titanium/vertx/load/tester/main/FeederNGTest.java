@@ -0,0 +1,170 @@
+/*
+ * FeederNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpHeaders;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+import titanium.vertx.load.tester.config.FeederConfiguration;
+
+public class FeederNGTest {
+
+    @Test
+    public void csvTest() throws IOException {
+
+        File file = this.createFile(".csv",
+                "path,x-user,body\r\n"
+                + "/a,alice,plain\r\n"
+                + "/b,,\"with \"\"quotes\"\", and comma\"\r\n"
+                + "\r\n"
+                + "/c,carol,\"quoted, no escapes\"\r\n");
+
+        Feeder feeder = new Feeder(new FeederConfiguration(
+                file.getPath(), FeederConfiguration.Format.CSV, FeederConfiguration.Order.SEQUENTIAL));
+
+        assertEquals(feeder.size(), 3);
+
+        assertEquals(feeder.getPath(0), "/a");
+        assertEquals(this.headersOf(feeder, 0).get("x-user"), "alice");
+        assertEquals(feeder.getBody(0).toString(), "plain");
+
+        // empty header columns are not sent
+        assertEquals(feeder.getPath(1), "/b");
+        assertTrue(this.headersOf(feeder, 1).isEmpty());
+        assertEquals(feeder.getBody(1).toString(), "with \"quotes\", and comma");
+
+        assertEquals(feeder.getPath(2), "/c");
+        assertEquals(feeder.getBody(2).toString(), "quoted, no escapes");
+    }
+
+    @Test
+    public void jsonlTest() throws IOException {
+
+        File file = this.createFile(".jsonl",
+                "{\"path\": \"/a\", \"headers\": {\"x-user\": \"alice\"}, \"body\": \"text\"}\n"
+                + "{\"body\": {\"id\": 1}}\n"
+                + "\n"
+                + "{\"path\": \"/c\"}");
+
+        Feeder feeder = new Feeder(new FeederConfiguration(
+                file.getPath(), FeederConfiguration.Format.JSONL, FeederConfiguration.Order.SEQUENTIAL));
+
+        assertEquals(feeder.size(), 3);
+
+        assertEquals(feeder.getPath(0), "/a");
+        assertEquals(this.headersOf(feeder, 0).get("x-user"), "alice");
+        assertEquals(feeder.getBody(0).toString(), "text");
+
+        // missing values are taken from the client configuration
+        assertNull(feeder.getPath(1));
+        assertTrue(this.headersOf(feeder, 1).isEmpty());
+        assertEquals(feeder.getBody(1).toJsonObject().getInteger("id").intValue(), 1);
+
+        assertEquals(feeder.getPath(2), "/c");
+        assertNull(feeder.getBody(2));
+    }
+
+    @Test
+    public void orderTest() throws IOException {
+
+        StringBuilder corpus = new StringBuilder("path\n");
+        for (int i = 0; i < 10; i++) {
+            corpus.append("/").append(i).append("\n");
+        }
+        File file = this.createFile(".csv", corpus.toString());
+
+        // sequential clients take turns
+        Feeder sequential = new Feeder(new FeederConfiguration(
+                file.getPath(), FeederConfiguration.Format.CSV, FeederConfiguration.Order.SEQUENTIAL));
+        Feeder.Cursor cursor = sequential.cursor(1, 3);
+        assertEquals(cursor.next(), 1);
+        assertEquals(cursor.next(), 4);
+        assertEquals(cursor.next(), 7);
+        assertEquals(cursor.next(), 1);
+
+        // partitioned clients own disjoint slices
+        Feeder partitioned = new Feeder(new FeederConfiguration(
+                file.getPath(), FeederConfiguration.Format.CSV, FeederConfiguration.Order.PARTITIONED));
+        cursor = partitioned.cursor(1, 3);
+        assertEquals(cursor.next(), 3);
+        assertEquals(cursor.next(), 4);
+        assertEquals(cursor.next(), 5);
+        assertEquals(cursor.next(), 3);
+
+        // random stays within the corpus
+        Feeder random = new Feeder(new FeederConfiguration(
+                file.getPath(), FeederConfiguration.Format.CSV, FeederConfiguration.Order.RANDOM));
+        cursor = random.cursor(0, 3);
+        for (int i = 0; i < 100; i++) {
+            int record = cursor.next();
+            assertTrue(record >= 0 && record < 10);
+        }
+    }
+
+    @Test
+    public void putHeadersTest() throws IOException {
+
+        File file = this.createFile(".csv",
+                "path,x-user,accept\n"
+                + "/a,alice,text/plain\n"
+                + "/b,,\n");
+
+        Feeder feeder = new Feeder(new FeederConfiguration(
+                file.getPath(), FeederConfiguration.Format.CSV, FeederConfiguration.Order.SEQUENTIAL));
+
+        MultiMap defaults = HttpHeaders.headers().add("accept", "application/json").add("x-trace", "1");
+        MultiMap request = HttpHeaders.headers().addAll(defaults);
+
+        // record headers replace defaults of the same name
+        feeder.putHeaders(0, request);
+        assertEquals(request.get("x-user"), "alice");
+        assertEquals(request.getAll("accept").size(), 1);
+        assertEquals(request.get("accept"), "text/plain");
+        assertEquals(request.get("x-trace"), "1");
+
+        // a reused request is back at the defaults
+        feeder.restoreHeaders(0, request, defaults);
+        assertNull(request.get("x-user"));
+        assertEquals(request.getAll("accept").size(), 1);
+        assertEquals(request.get("accept"), "application/json");
+        assertEquals(request.size(), 2);
+
+        // records without headers send the defaults
+        feeder.putHeaders(1, request);
+        assertEquals(request.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void emptyTest() throws IOException {
+        File file = this.createFile(".csv", "path,body\n");
+        new Feeder(new FeederConfiguration(
+                file.getPath(), FeederConfiguration.Format.CSV, FeederConfiguration.Order.SEQUENTIAL));
+    }
+
+    private MultiMap headersOf(Feeder feeder, int record) {
+        MultiMap headers = HttpHeaders.headers();
+        feeder.putHeaders(record, headers);
+        return headers;
+    }
+
+    private File createFile(String suffix, String content) throws IOException {
+        File file = File.createTempFile("feeder", suffix);
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}
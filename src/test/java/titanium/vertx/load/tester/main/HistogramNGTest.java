@@ -0,0 +1,93 @@
+/*
+ * HistogramNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class HistogramNGTest {
+
+    @Test
+    public void indexTest() {
+
+        // every bucket maps back to itself and buckets are contiguous
+        for (int i = 0; i < Histogram.BUCKET_COUNT; i++) {
+            long lowest = Histogram.lowestEquivalentValue(i);
+            long highest = Histogram.highestEquivalentValue(i);
+            assertEquals(Histogram.index(lowest), i);
+            assertEquals(Histogram.index(highest), i);
+            if (i > 0) {
+                assertEquals(Histogram.highestEquivalentValue(i - 1) + 1, lowest);
+            }
+        }
+
+        // whole long range is covered
+        assertEquals(Histogram.index(Long.MAX_VALUE), Histogram.BUCKET_COUNT - 1);
+        assertEquals(Histogram.index(-1), 0);
+    }
+
+    @Test
+    public void percentileTest() {
+
+        Histogram histogram = new Histogram();
+        assertEquals(histogram.getValueAtPercentile(99.0), 0);
+        assertEquals(histogram.getMaxValue(), 0);
+
+        // record 1 to 10,000 micros in nanos
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertEquals(histogram.getTotalCount(), 10_000);
+        assertWithinOnePercent(histogram.getValueAtPercentile(50.0), 5_000_000);
+        assertWithinOnePercent(histogram.getValueAtPercentile(90.0), 9_000_000);
+        assertWithinOnePercent(histogram.getValueAtPercentile(99.0), 9_900_000);
+        assertWithinOnePercent(histogram.getValueAtPercentile(99.9), 9_990_000);
+        assertWithinOnePercent(histogram.getMaxValue(), 10_000_000);
+    }
+
+    @Test
+    public void differenceTest() {
+
+        Histogram recorded = new Histogram();
+        Histogram merged = new Histogram();
+        Histogram previous = new Histogram();
+        Histogram interval = new Histogram();
+
+        // first interval
+        recorded.record(100);
+        recorded.record(200);
+        merged.add(recorded);
+        interval.setToDifference(merged, previous);
+
+        assertEquals(interval.getTotalCount(), 2);
+        assertEquals(interval.getMaxValue(), 200);
+
+        // second interval, recorded histogram keeps growing
+        previous.reset();
+        previous.add(merged);
+        recorded.record(250);
+        merged.reset();
+        merged.add(recorded);
+        interval.setToDifference(merged, previous);
+
+        assertEquals(recorded.getTotalCount(), 3);
+        assertEquals(interval.getTotalCount(), 1);
+        assertEquals(interval.getMaxValue(), 250);
+        assertEquals(merged.getValueAtPercentile(50.0), 200);
+    }
+
+    private static void assertWithinOnePercent(long actual, long expected) {
+        assertTrue(Math.abs(actual - expected) <= expected / 100,
+                String.format("Expected [%s] within 1%%, was [%s].", expected, actual));
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * LoadProfileNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import java.util.Arrays;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+import titanium.vertx.load.tester.config.StageConfiguration;
+
+public class LoadProfileNGTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void rateTest() {
+
+        // ramp 0 -> 100 rps over 10s, hold 10s, step to 200 rps for 5s
+        LoadProfile profile = new LoadProfile(Arrays.asList(
+                new StageConfiguration("warmup", 20, 10, 100, -1),
+                new StageConfiguration("step", 5, 0, 200, -1)), null, 0);
+
+        assertTrue(profile.isOpenLoop());
+        assertEquals(profile.targetAt(5 * SECOND), 50.0, 0.001);
+        assertEquals(profile.targetAt(15 * SECOND), 100.0, 0.001);
+        assertEquals(profile.targetAt(22 * SECOND), 200.0, 0.001);
+        assertEquals(profile.targetAt(25 * SECOND), 0.0, 0.001);
+
+        // 500 requests during the ramp, due times grow quadratically
+        assertEquals(profile.timeOf(0), 0);
+        assertEquals(profile.timeOf(125), 5 * SECOND, 1_000);
+        assertEquals(profile.timeOf(500), 10 * SECOND, 1_000);
+
+        // then 100 per second during the hold and 200 per second after the step
+        assertEquals(profile.timeOf(1_000), 15 * SECOND, 1_000);
+        assertEquals(profile.timeOf(1_700), 21 * SECOND, 1_000);
+
+        // 500 + 1000 + 1000 requests in the whole run
+        assertTrue(profile.timeOf(2_499) < 25 * SECOND);
+        assertEquals(profile.timeOf(2_500), Long.MAX_VALUE);
+        assertTrue(profile.isFinished(25 * SECOND));
+    }
+
+    @Test
+    public void rampDownTest() {
+
+        // spike to 1000 rps, then ramp down to 0 over 10s
+        LoadProfile profile = new LoadProfile(Arrays.asList(
+                new StageConfiguration("spike", 1, 0, 1_000, -1),
+                new StageConfiguration("cooldown", 10, 10, 0, -1)), null, 0);
+
+        // 1000 during the spike, half of the 5000 of the ramp down by 10 - sqrt(50)
+        assertEquals(profile.timeOf(1_000), SECOND, 1_000);
+        double seconds = 1 + 10 - Math.sqrt(50);
+        assertEquals(profile.timeOf(3_500), (long) (seconds * SECOND), 1_000);
+        assertEquals(profile.timeOf(6_000), Long.MAX_VALUE);
+    }
+
+    @Test
+    public void concurrencyTest() {
+
+        LoadProfile profile = new LoadProfile(Arrays.asList(
+                new StageConfiguration("ramp", 10, 10, -1, 10),
+                new StageConfiguration("soak", 60, 0, -1, 10)), null, 0);
+
+        assertFalse(profile.isOpenLoop());
+
+        // 5 concurrent requests over 2 clients at half the ramp
+        assertEquals(profile.getConcurrency(5 * SECOND, 0, 2), 3);
+        assertEquals(profile.getConcurrency(5 * SECOND, 1, 2), 2);
+        assertEquals(profile.getConcurrency(30 * SECOND, 0, 2), 5);
+        assertEquals(profile.getConcurrency(30 * SECOND, 1, 2), 5);
+
+        // nothing once the profile finished
+        assertEquals(profile.getConcurrency(70 * SECOND, 0, 2), 0);
+        assertEquals(profile.stageAt(5 * SECOND), 0);
+        assertEquals(profile.stageAt(30 * SECOND), 1);
+        assertEquals(profile.stageAt(70 * SECOND), -1);
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * MetricsEndpointNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.Vertx;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class MetricsEndpointNGTest {
+
+    @Test
+    public void scrapeTest() {
+
+        Vertx vertx = Vertx.vertx();
+        try {
+            Metrics metrics = new Metrics(vertx, true);
+            Metrics child = metrics.createChild("GET /");
+            metrics.logStarted();
+            metrics.logStarted();
+            metrics.logStarted();
+            metrics.log(2_000_000L, 10, 20); // 2 millis
+            metrics.log(20_000_000L, 10, 20); // 20 millis
+            metrics.logError();
+            child.log(2_000_000L);
+
+            String scrape = new MetricsEndpoint(metrics, "localhost", 0).scrape();
+
+            assertTrue(scrape.contains("# TYPE vertx_load_tester_transactions counter\n"));
+            assertTrue(scrape.contains("vertx_load_tester_transactions_total{metrics=\"Client\"} 2\n"));
+            assertTrue(scrape.contains("vertx_load_tester_transactions_total{metrics=\"Client [GET /]\"} 1\n"));
+            assertTrue(scrape.contains("vertx_load_tester_errors_total{metrics=\"Client\"} 1\n"));
+            assertTrue(scrape.contains("vertx_load_tester_bytes_sent_total{metrics=\"Client\"} 40\n"));
+            assertTrue(scrape.contains("vertx_load_tester_in_flight{metrics=\"Client\"} 0\n"));
+            assertTrue(scrape.contains("vertx_load_tester_latency_seconds_bucket{metrics=\"Client\",le=\"0.0001\"} 0\n"));
+            assertTrue(scrape.contains("vertx_load_tester_latency_seconds_bucket{metrics=\"Client\",le=\"0.001\"} 0\n"));
+            assertTrue(scrape.contains("vertx_load_tester_latency_seconds_bucket{metrics=\"Client\",le=\"0.0025\"} 1\n"));
+            assertTrue(scrape.contains("vertx_load_tester_latency_seconds_bucket{metrics=\"Client\",le=\"0.025\"} 2\n"));
+            assertTrue(scrape.contains("vertx_load_tester_latency_seconds_bucket{metrics=\"Client\",le=\"10\"} 2\n"));
+            assertTrue(scrape.contains("vertx_load_tester_latency_seconds_bucket{metrics=\"Client\",le=\"+Inf\"} 2\n"));
+            assertTrue(scrape.contains("vertx_load_tester_latency_seconds_count{metrics=\"Client\"} 2\n"));
+            assertTrue(scrape.contains("vertx_load_tester_latency_seconds_sum{metrics=\"Client\"} 0.022\n"));
+            assertTrue(scrape.endsWith("# EOF\n"));
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test(timeOut = 30000)
+    public void endpointTest() throws Exception {
+
+        Vertx vertx = Vertx.vertx();
+        MetricsEndpoint endpoint = null;
+        try {
+            Metrics metrics = new Metrics(vertx, false);
+            metrics.openConnection("127.0.0.1:5000").streamOpened();
+            metrics.log(1_000_000L);
+
+            endpoint = new MetricsEndpoint(metrics, "localhost", 0);
+            endpoint.start().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+            URL url = new URL("http://localhost:" + endpoint.getActualPort() + "/metrics");
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertEquals(connection.getResponseCode(), 200);
+            assertEquals(connection.getHeaderField("content-type"), MetricsEndpoint.CONTENT_TYPE);
+            String scrape;
+            try (InputStream in = connection.getInputStream()) {
+                scrape = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            assertTrue(scrape.contains("vertx_load_tester_transactions_total{metrics=\"Server\"} 1\n"));
+            assertTrue(scrape.contains(
+                    "vertx_load_tester_connection_streams{metrics=\"Server\",remote=\"127.0.0.1:5000\"} 1\n"));
+        } finally {
+            if (endpoint != null) {
+                endpoint.stop();
+            }
+            vertx.close();
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * ResponseBodyNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.predicate.ResponsePredicate;
+import java.util.concurrent.TimeUnit;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ResponseBodyNGTest {
+
+    private static final int PORT = 8097;
+    private static final int CHUNK = 64 * 1024;
+    private static final int CHUNKS = 16;
+
+    private Vertx vertx;
+    private WebClient client;
+
+    @BeforeClass
+    public void setUpClass() throws Exception {
+        vertx = Vertx.vertx();
+        client = WebClient.create(vertx);
+
+        // a large body written in chunks, the first one after a pause
+        Buffer chunk = Buffer.buffer(new byte[CHUNK]);
+        HttpServer server = vertx.createHttpServer().requestHandler(request -> {
+            HttpServerResponse response = request.response().setChunked(true);
+            response.setStatusCode(request.path().equals("/missing") ? 404 : 200);
+            response.write(Buffer.buffer()); // sends the headers
+            vertx.setTimer(100, handler -> {
+                for (int i = 0; i < CHUNKS; i++) {
+                    response.write(chunk);
+                }
+                response.end();
+            });
+        });
+        server.listen(PORT).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterClass
+    public void tearDownClass() {
+        vertx.close();
+    }
+
+    @Test(timeOut = 30000)
+    public void streamingTest() throws Exception {
+
+        long requestTime = System.nanoTime();
+        HttpResponse<ResponseBody> response = client.get(PORT, "localhost", "/")
+                .as(ResponseBody.STREAMING)
+                .send().toCompletionStage().toCompletableFuture().get();
+        long lastByteTime = System.nanoTime();
+
+        // counted but not kept
+        assertEquals(response.body().getBytes(), CHUNK * CHUNKS);
+        assertNull(response.body().getBuffer());
+
+        // the headers arrived before the body
+        long firstByte = response.body().getFirstByteTime() - requestTime;
+        long lastByte = lastByteTime - requestTime;
+        assertTrue(firstByte > 0);
+        assertTrue(lastByte - firstByte >= TimeUnit.MILLISECONDS.toNanos(90), 
+                String.format("first byte [%s], last byte [%s]", firstByte, lastByte));
+    }
+
+    @Test(timeOut = 30000)
+    public void bufferingTest() throws Exception {
+
+        HttpResponse<ResponseBody> response = client.get(PORT, "localhost", "/")
+                .as(ResponseBody.BUFFERING)
+                .send().toCompletionStage().toCompletableFuture().get();
+
+        assertEquals(response.body().getBytes(), CHUNK * CHUNKS);
+        assertEquals(response.body().getBuffer().length(), CHUNK * CHUNKS);
+    }
+
+    @Test(timeOut = 30000)
+    public void statusTest() throws Exception {
+
+        // fails on the headers, without waiting for the body
+        long requestTime = System.nanoTime();
+        Throwable failure = client.get(PORT, "localhost", "/missing")
+                .as(ResponseBody.STREAMING)
+                .expect(ResponsePredicate.status(200))
+                .send().toCompletionStage().toCompletableFuture()
+                .handle((response, cause) -> cause).get();
+        
+        assertNotNull(failure);
+        assertTrue(System.nanoTime() - requestTime < TimeUnit.MILLISECONDS.toNanos(90));
+    }
+
+}
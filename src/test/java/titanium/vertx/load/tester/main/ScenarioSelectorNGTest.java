@@ -0,0 +1,49 @@
+/*
+ * ScenarioSelectorNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class ScenarioSelectorNGTest {
+
+    @Test
+    public void proportionTest() {
+
+        ScenarioSelector selector = new ScenarioSelector(new int[]{70, 25, 5, 0}, 42);
+
+        int[] counts = new int[4];
+        int picks = 1_000_000;
+        for (int i = 0; i < picks; i++) {
+            counts[selector.next()]++;
+        }
+
+        // within half a percent of the weights, disabled scenario never picked
+        assertEquals(counts[0] / (double) picks, 0.70, 0.005);
+        assertEquals(counts[1] / (double) picks, 0.25, 0.005);
+        assertEquals(counts[2] / (double) picks, 0.05, 0.005);
+        assertEquals(counts[3], 0);
+    }
+
+    @Test
+    public void singleTest() {
+        ScenarioSelector selector = new ScenarioSelector(new int[]{1}, 42);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(selector.next(), 0);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void zeroWeightTest() {
+        new ScenarioSelector(new int[]{0, 0}, 42);
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * TestServers.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import java.net.Socket;
+
+/**
+ * Helpers for tests and benchmarks that start a server.
+ */
+final class TestServers {
+
+    private TestServers() {
+    }
+
+    /**
+     * Waits for a server started in the background to accept connections.
+     *
+     * @param port the server listens on, on localhost
+     * @throws InterruptedException if interrupted while waiting
+     */
+    static void awaitListening(int port) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            try (Socket socket = new Socket("localhost", port)) {
+                return;
+            } catch (Exception ex) {
+                Thread.sleep(50);
+            }
+        }
+        throw new IllegalStateException("Server is not listening.");
+    }
+
+}
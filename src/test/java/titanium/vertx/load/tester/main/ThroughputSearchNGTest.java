@@ -0,0 +1,69 @@
+/*
+ * ThroughputSearchNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+import titanium.vertx.load.tester.config.SearchConfiguration;
+
+public class ThroughputSearchNGTest {
+
+    @Test
+    public void bisectTest() {
+
+        ThroughputSearch search = this.createSearch(0);
+
+        // capacity of 3300 requests per second, doubles then bisects
+        long capacity = 3_300;
+        long rate = 1_000;
+        int trials = 0;
+        while (rate > 0) {
+            trials++;
+            rate = search.next(rate, rate <= capacity);
+        }
+
+        // 1000, 2000, 4000, 3000, 3500, 3250 and 3375, within 5% of 3375
+        assertEquals(search.getSustainableRequestsPerSecond(), 3_250);
+        assertEquals(trials, 7);
+    }
+
+    @Test
+    public void maxRateTest() {
+
+        ThroughputSearch search = this.createSearch(3_000);
+
+        // doubling stops at the maximum, which is sustainable
+        assertEquals(search.next(1_000, true), 2_000);
+        assertEquals(search.next(2_000, true), 3_000);
+        assertEquals(search.next(3_000, true), 0);
+        assertEquals(search.getSustainableRequestsPerSecond(), 3_000);
+    }
+
+    @Test
+    public void nothingSustainableTest() {
+
+        ThroughputSearch search = this.createSearch(0);
+
+        // halves until the rates can not be bisected anymore
+        long rate = 1_000;
+        while (rate > 0) {
+            rate = search.next(rate, false);
+        }
+        assertEquals(search.getSustainableRequestsPerSecond(), 0);
+    }
+
+    private ThroughputSearch createSearch(long maxRequestsPerSecond) {
+        SearchConfiguration config = new SearchConfiguration(10.0, 0.001, 1_000, 
+                maxRequestsPerSecond, 5, 30, 0.05, 20);
+        return new ThroughputSearch(null, config, null, () -> {});
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * TimeSeriesNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class TimeSeriesNGTest {
+
+    @Test
+    public void roundTripTest() throws IOException {
+
+        File file = this.createFile();
+
+        // more records than fit into one mapped region
+        int count = (int) (TimeSeriesWriter.REGION_SIZE / TimeSeriesWriter.RECORD_SIZE) + 10;
+        TimeSeriesWriter writer = new TimeSeriesWriter(file.getPath(), "Client");
+        long[] record = new long[TimeSeriesWriter.FIELDS.length];
+        for (int r = 0; r < count; r++) {
+            for (int i = 0; i < record.length; i++) {
+                record[i] = r * 100L + i;
+            }
+            writer.append(record);
+        }
+        writer.close();
+        writer.append(record); // ignored once closed
+
+        assertEquals(file.length(), TimeSeriesWriter.HEADER_SIZE + (long) count * TimeSeriesWriter.RECORD_SIZE);
+
+        TimeSeriesReader reader = new TimeSeriesReader(file.getPath());
+        assertEquals(reader.getName(), "Client");
+        assertEquals(reader.getRecords().length, count);
+        assertEquals(reader.getRecords()[0][3], 3);
+        assertEquals(reader.getRecords()[count - 1][14], (count - 1) * 100L + 14);
+    }
+
+    @Test
+    public void unclosedTest() throws IOException {
+
+        File file = this.createFile();
+
+        // a killed process leaves the mapped region behind its records
+        TimeSeriesWriter writer = new TimeSeriesWriter(file.getPath(), "Server");
+        writer.append(new long[TimeSeriesWriter.FIELDS.length]);
+        writer.append(new long[TimeSeriesWriter.FIELDS.length]);
+
+        TimeSeriesReader reader = new TimeSeriesReader(file.getPath());
+        assertEquals(reader.getName(), "Server");
+        assertEquals(reader.getRecords().length, 2);
+        writer.close();
+    }
+
+    @Test
+    public void convertTest() throws IOException {
+
+        File file = this.createFile();
+        TimeSeriesWriter writer = new TimeSeriesWriter(file.getPath(), "Client");
+        long[] record = new long[TimeSeriesWriter.FIELDS.length];
+        record[0] = 1_700_000_000_000L;
+        record[1] = 42;
+        writer.append(record);
+        writer.close();
+
+        TimeSeriesReader reader = new TimeSeriesReader(file.getPath());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        reader.printCsv(new PrintStream(csv, true, StandardCharsets.UTF_8));
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(lines.length, 2);
+        assertTrue(lines[0].startsWith("timeMillis,transactions,errors,"));
+        assertTrue(lines[1].startsWith("1700000000000,42,0,"));
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        reader.printJson(new PrintStream(json, true, StandardCharsets.UTF_8));
+        JsonObject converted = new JsonObject(json.toString(StandardCharsets.UTF_8));
+        assertEquals(converted.getString("name"), "Client");
+        assertEquals(converted.getJsonArray("records").getJsonObject(0).getLong("transactions").longValue(), 42);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void notResultsFileTest() throws IOException {
+        File file = this.createFile();
+        Files.write(file.toPath(), new byte[TimeSeriesWriter.HEADER_SIZE]);
+        new TimeSeriesReader(file.getPath());
+    }
+
+    private File createFile() throws IOException {
+        File file = File.createTempFile("results", ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+
+}
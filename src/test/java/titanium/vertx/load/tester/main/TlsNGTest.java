@@ -0,0 +1,142 @@
+/*
+ * TlsNGTest.java
+ *
+ * Copyright (c) 2023 Titanium Software Holdings Inc. All Rights Reserved.
+ *
+ * This software is the proprietary information of Titanium Software Holdings Inc. 
+ * Use is subject to license terms.
+ *
+ * @author Titanium Software Holdings Inc.
+ */
+package titanium.vertx.load.tester.main;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import static org.testng.Assert.*;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import titanium.vertx.load.tester.config.ServerConfiguration;
+import titanium.vertx.load.tester.config.TlsConfiguration;
+
+public class TlsNGTest {
+
+    private static final int PORT = 8096;
+
+    @Test
+    public void createKeyStoreTest() throws IOException {
+
+        File keyStore = this.createKeyStoreFile();
+        Tls tls = new Tls(new TlsConfiguration(new JsonObject().put("keyStore", keyStore.getPath())), null);
+
+        tls.createKeyStore();
+        assertTrue(keyStore.length() > 0);
+
+        // an existing key store is kept
+        long length = keyStore.length();
+        tls.createKeyStore();
+        assertEquals(keyStore.length(), length);
+    }
+
+    @DataProvider
+    public Object[][] engineProvider() {
+        return new Object[][]{
+            {"jdk"},
+            {"openssl"}
+        };
+    }
+
+    @Test(dataProvider = "engineProvider", timeOut = 60000)
+    public void handshakeTest(String engine) throws Exception {
+
+        File keyStore = this.createKeyStoreFile();
+        JsonObject tlsJson = new JsonObject()
+                .put("engine", engine)
+                .put("keyStore", keyStore.getPath());
+        if (engine.equals("openssl")) {
+            // only OpenSSL switches resumption off, the JDK may resume
+            tlsJson.put("sessionCache", false);
+        }
+
+        Vertx serverVertx = Vertx.vertx();
+        Vertx clientVertx = Vertx.vertx();
+        try {
+            Metrics serverMetrics = new Metrics(serverVertx, false);
+            Server server = new Server(serverVertx, new ServerConfiguration(new JsonObject()
+                    .put("port", PORT)
+                    .put("verticles", 1)
+                    .put("keepAlive", false)
+                    .put("tls", tlsJson)), serverMetrics);
+            server.start();
+
+            Metrics handshakes = new Metrics(clientVertx, "Handshakes");
+            Tls tls = new Tls(new TlsConfiguration(tlsJson), handshakes);
+            assertEquals(tls.getEngine().name().toLowerCase(), engine);
+
+            // h2 is negotiated over ALPN, every request shares one connection
+            WebClient h2 = WebClient.create(clientVertx, tls.apply(new WebClientOptions()
+                    .setProtocolVersion(HttpVersion.HTTP_2)));
+            HttpRequest<Buffer> h2Request = h2.request(HttpMethod.GET, PORT, "localhost", "/");
+            for (int i = 0; i < 3; i++) {
+                HttpResponse<Buffer> response = this.send(h2Request);
+                assertEquals(response.statusCode(), 200);
+                assertEquals(response.version(), HttpVersion.HTTP_2);
+            }
+            assertEquals(handshakes.snapshot().getTransactions(), 1);
+
+            // without keep alive every request runs a full handshake
+            WebClient http1 = WebClient.create(clientVertx, tls.apply(new WebClientOptions()
+                    .setProtocolVersion(HttpVersion.HTTP_1_1)
+                    .setKeepAlive(false)));
+            HttpRequest<Buffer> http1Request = http1.request(HttpMethod.GET, PORT, "localhost", "/");
+            for (int i = 0; i < 3; i++) {
+                HttpResponse<Buffer> response = this.send(http1Request);
+                assertEquals(response.statusCode(), 200);
+                assertEquals(response.version(), HttpVersion.HTTP_1_1);
+            }
+
+            Recorder clientHandshakes = handshakes.snapshot();
+            assertEquals(clientHandshakes.getTransactions(), 4);
+            assertEquals(clientHandshakes.getErrors(), 0);
+            assertTrue(clientHandshakes.getLatencyNanos() > 0);
+
+            // handshakes are reported apart from the requests
+            Metrics serverHandshakes = serverMetrics.getChildren().get(0);
+            assertEquals(serverHandshakes.getName(), "Server [TLS Handshakes]");
+            assertEquals(serverHandshakes.snapshot().getTransactions(), 4);
+        } finally {
+            clientVertx.close();
+            serverVertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private HttpResponse<Buffer> send(HttpRequest<Buffer> request) throws Exception {
+
+        // the server verticle may still be starting
+        for (int i = 0; i < 50; i++) {
+            try {
+                return request.send().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Server did not respond.");
+    }
+
+    private File createKeyStoreFile() throws IOException {
+        File file = File.createTempFile("keystore", ".p12");
+        file.delete(); // generated by the server
+        file.deleteOnExit();
+        return file;
+    }
+
+}